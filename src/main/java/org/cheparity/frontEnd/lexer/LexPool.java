@@ -1,21 +1,266 @@
 package frontEnd.lexer;
 
+import frontEnd.lexer.dataStruct.FormatString;
+import frontEnd.lexer.dataStruct.IntConst;
+import frontEnd.lexer.dataStruct.LexType;
+import frontEnd.lexer.dataStruct.LineIndex;
+import frontEnd.lexer.dataStruct.NamePool;
+import frontEnd.lexer.dataStruct.SourceBuffer;
 import frontEnd.lexer.dataStruct.Token;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
 
-public class LexPool {
-    private final ArrayList<Token> tokens = new ArrayList<>();
+/**
+ * The tokens of a source, stored column-wise in parallel primitive arrays instead of one {@link Token} object each.
+ * Only the offset of a token is stored; its line and column are derived from the {@link LineIndex} of the source.
+ * <p>
+ * A token is identified by its index. {@link Token} objects are only created when {@link #getToken(int)} is called,
+ * e.g. when the parser makes a leaf of it.
+ * <p>
+ * Identifiers also keep the id of their name in the {@link NamePool} of the lexer, and literals are kept decoded: an
+ * IntConst keeps its value, a FormatString keeps its {@link FormatString}.
+ */
+public class LexPool implements TokenSource {
+    private final static LexType[] LEX_TYPES = LexType.values();
+    private final static int INITIAL_CAPACITY = 256;
+    private final SourceBuffer source;
+    private final NamePool names;
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private int[] offsets = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    /**
+     * The id of the name for IDENFR, the value (low 32 bits) for INTCON, the index in formatStrings for STRCON, and -1
+     * for the others.
+     */
+    private int[] values = new int[INITIAL_CAPACITY];
+    /**
+     * The INTCONs whose values do not fit in an int.
+     */
+    private final BitSet overflows = new BitSet();
+    private final ArrayList<FormatString> formatStrings = new ArrayList<>();
+    private int size = 0;
 
-    public void addToken(Token token) {
-        tokens.add(token);
+    public LexPool(SourceBuffer source, NamePool names) {
+        this.source = source;
+        this.names = names;
     }
 
-    public ArrayList<Token> getTokens() {
-        return this.tokens;
+    /**
+     * Add a token other than a literal.
+     *
+     * @param identId The id of the name if the token is an identifier, otherwise -1.
+     */
+    public void addToken(LexType lexType, int offset, int length, int identId) {
+        assert lexType != LexType.INTCON && lexType != LexType.STRCON;
+        add(lexType, offset, length, identId);
+    }
+
+    /**
+     * @param value The decoded value, see {@link IntConst#parse}.
+     */
+    public void addIntConst(int offset, int length, long value) {
+        if (IntConst.isOverflow(value)) {
+            overflows.set(size);
+        }
+        add(LexType.INTCON, offset, length, (int) value);
+    }
+
+    public void addFormatString(int offset, int length, FormatString formatString) {
+        formatStrings.add(formatString);
+        add(LexType.STRCON, offset, length, formatStrings.size() - 1);
+    }
+
+    private void add(LexType lexType, int offset, int length, int value) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        types[size] = (byte) lexType.ordinal();
+        offsets[size] = offset;
+        lengths[size] = length;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * Append the tokens of another pool taken from the same source, e.g. the next chunk of it. The names of the pool
+     * are interned into this pool in the order of their ids, so the ids come out the same as if the two parts had been
+     * lexed in one go.
+     */
+    public void append(LexPool other) {
+        assert other.source == this.source;
+        int[] idMap = new int[other.names.size()];
+        for (int id = 0; id < idMap.length; id++) {
+            idMap[id] = names.intern(other.names.getName(id));
+        }
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.types, 0, types, size, other.size);
+        System.arraycopy(other.offsets, 0, offsets, size, other.size);
+        System.arraycopy(other.lengths, 0, lengths, size, other.size);
+        int formatBase = formatStrings.size();
+        for (int i = 0; i < other.size; i++) {
+            int value = other.values[i];
+            values[size + i] = switch (LEX_TYPES[other.types[i]]) {
+                case IDENFR -> idMap[value];
+                case STRCON -> formatBase + value;
+                default -> value;
+            };
+        }
+        formatStrings.addAll(other.formatStrings);
+        for (int i = other.overflows.nextSetBit(0); i >= 0; i = other.overflows.nextSetBit(i + 1)) {
+            overflows.set(size + i);
+        }
+        size += other.size;
+    }
+
+    /**
+     * Append the tokens in [from, to) of the pool of the source before an edit, which shares the names of this pool,
+     * moved by the delta of the edit.
+     */
+    public void appendMoved(LexPool before, int from, int to, int delta) {
+        assert before.names == this.names;
+        int count = to - from;
+        ensureCapacity(size + count);
+        System.arraycopy(before.types, from, types, size, count);
+        System.arraycopy(before.lengths, from, lengths, size, count);
+        System.arraycopy(before.values, from, values, size, count);
+        for (int i = 0; i < count; i++) {
+            offsets[size + i] = before.offsets[from + i] + delta;
+        }
+        byte strcon = (byte) LexType.STRCON.ordinal();
+        for (int i = size; i < size + count; i++) {
+            if (types[i] == strcon) {
+                formatStrings.add(before.formatStrings.get(values[i]));
+                values[i] = formatStrings.size() - 1;
+            }
+        }
+        for (int i = before.overflows.nextSetBit(from); i >= 0 && i < to; i = before.overflows.nextSetBit(i + 1)) {
+            overflows.set(size + i - from);
+        }
+        size += count;
+    }
+
+    public SourceBuffer getSource() {
+        return source;
+    }
+
+    private void ensureCapacity(int count) {
+        int capacity = types.length;
+        while (capacity < count) {
+            capacity *= 2;
+        }
+        if (capacity != types.length) {
+            types = Arrays.copyOf(types, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    public NamePool getNamePool() {
+        return names;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public LexType getLexType(int index) {
+        return LEX_TYPES[types[index]];
+    }
+
+    public int getOffset(int index) {
+        return offsets[index];
+    }
+
+    public int getLength(int index) {
+        return lengths[index];
+    }
+
+    @Override
+    public String getRawValue(int index) {
+        LexType lexType = getLexType(index);
+        if (lexType.isPreserved()) {
+            return lexType.getValue();
+        }
+        if (lexType == LexType.IDENFR) {
+            return names.getName(values[index]);
+        }
+        return source.substring(offsets[index], offsets[index] + lengths[index]);
+    }
+
+    @Override
+    public int getLineNum(int index) {
+        return source.getLineIndex().lineOf(offsets[index]);
+    }
+
+    @Override
+    public int getColNum(int index) {
+        return source.getLineIndex().columnOf(offsets[index], offsets[index] + lengths[index]);
+    }
+
+    @Override
+    public int getIdentId(int index) {
+        return getLexType(index) == LexType.IDENFR ? values[index] : -1;
+    }
+
+    /**
+     * @return The value of the IntConst at the index, the low 32 bits if it overflows.
+     */
+    public int getIntValue(int index) {
+        assert getLexType(index) == LexType.INTCON;
+        return values[index];
+    }
+
+    public boolean isOverflow(int index) {
+        return overflows.get(index);
+    }
+
+    public FormatString getFormatString(int index) {
+        assert getLexType(index) == LexType.STRCON;
+        return formatStrings.get(values[index]);
+    }
+
+    @Override
+    public Token getToken(int index) {
+        return switch (getLexType(index)) {
+            case IDENFR -> new Token(source, offsets[index], lengths[index], values[index], names.getName(values[index]));
+            case INTCON -> new Token(source, offsets[index], lengths[index], values[index], overflows.get(index));
+            case STRCON -> new Token(source, offsets[index], lengths[index], formatStrings.get(values[index]));
+            default -> new Token(getLexType(index), source, offsets[index], lengths[index]);
+        };
+    }
+
+    /**
+     * @return A read-only list view that creates each {@link Token} on access.
+     */
+    public List<Token> getTokens() {
+        return new AbstractList<>() {
+            @Override
+            public Token get(int index) {
+                return getToken(Objects.checkIndex(index, size));
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
     }
 
     public void clean() {
-        this.tokens.clear();
+        this.size = 0;
+        this.overflows.clear();
+        this.formatStrings.clear();
     }
 }
@@ -0,0 +1,52 @@
+package frontEnd.lexer;
+
+import frontEnd.lexer.dataStruct.LexType;
+import frontEnd.lexer.dataStruct.Token;
+
+import java.util.List;
+
+/**
+ * Adapts a list of already created tokens to {@link TokenSource}.
+ */
+public class ListTokenSource implements TokenSource {
+    private final List<Token> tokens;
+
+    public ListTokenSource(List<Token> tokens) {
+        this.tokens = tokens;
+    }
+
+    @Override
+    public int size() {
+        return tokens.size();
+    }
+
+    @Override
+    public LexType getLexType(int index) {
+        return tokens.get(index).getLexType();
+    }
+
+    @Override
+    public String getRawValue(int index) {
+        return tokens.get(index).getRawValue();
+    }
+
+    @Override
+    public int getLineNum(int index) {
+        return tokens.get(index).getLineNum();
+    }
+
+    @Override
+    public int getColNum(int index) {
+        return tokens.get(index).getColNum();
+    }
+
+    @Override
+    public int getIdentId(int index) {
+        return tokens.get(index).getIdentId();
+    }
+
+    @Override
+    public Token getToken(int index) {
+        return tokens.get(index);
+    }
+}
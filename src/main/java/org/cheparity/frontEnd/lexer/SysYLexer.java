@@ -2,12 +2,29 @@ package frontEnd.lexer;
 
 import frontEnd.lexer.dataStruct.Token;
 
-import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 public interface SysYLexer {
 
+    /**
+     * Lex the next token, comments included.
+     *
+     * @return The token, or empty at the end of the source.
+     */
     Optional<Token> next();
 
-    ArrayList<Token> getAllTokens();
+    /**
+     * Go back to the beginning of the source, so the next {@link #next()} returns the first token again.
+     */
+    void reset();
+
+    List<Token> getAllTokens();
+
+    /**
+     * Lex the whole source from the beginning.
+     *
+     * @return The tokens, addressable by index.
+     */
+    TokenSource tokenize();
 }
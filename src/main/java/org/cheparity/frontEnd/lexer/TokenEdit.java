@@ -0,0 +1,64 @@
+package frontEnd.lexer;
+
+import frontEnd.lexer.dataStruct.TextEdit;
+
+/**
+ * The tokens of a source after a {@link TextEdit}, see {@link frontEnd.lexer.impl.DfaLexer#relex}. The tokens in
+ * [from, removedEnd) of the source before the edit are replaced by the ones in [from, insertedEnd); the ones before are
+ * the same, and the ones after are the same moved by the delta of the edit.
+ */
+public final class TokenEdit {
+    private final TextEdit edit;
+    private final LexPool tokens;
+    private final int from;
+    private final int removedEnd;
+    private final int insertedEnd;
+
+    public TokenEdit(TextEdit edit, LexPool tokens, int from, int removedEnd, int insertedEnd) {
+        this.edit = edit;
+        this.tokens = tokens;
+        this.from = from;
+        this.removedEnd = removedEnd;
+        this.insertedEnd = insertedEnd;
+    }
+
+    public TextEdit getEdit() {
+        return edit;
+    }
+
+    /**
+     * @return The tokens of the source after the edit.
+     */
+    public LexPool getTokens() {
+        return tokens;
+    }
+
+    /**
+     * @return The index of the first token that is lexed again.
+     */
+    public int getFrom() {
+        return from;
+    }
+
+    /**
+     * @return The index after the tokens that are replaced, in the tokens before the edit.
+     */
+    public int getRemovedEnd() {
+        return removedEnd;
+    }
+
+    /**
+     * @return The index after the tokens that are lexed again, in the tokens after the edit.
+     */
+    public int getInsertedEnd() {
+        return insertedEnd;
+    }
+
+    /**
+     * @return The index in the tokens after the edit of a token at or after {@link #getRemovedEnd()} before it.
+     */
+    public int moved(int index) {
+        assert index >= removedEnd;
+        return index + insertedEnd - removedEnd;
+    }
+}
@@ -0,0 +1,43 @@
+package frontEnd.lexer;
+
+import frontEnd.lexer.dataStruct.LexType;
+import frontEnd.lexer.dataStruct.Token;
+
+/**
+ * Index-addressable tokens. Callers that only need the type or the text of a token should use the per-field getters,
+ * which do not create a {@link Token}.
+ */
+public interface TokenSource {
+    int size();
+
+    /**
+     * @return True if there is a token at the index. A stream may have to read ahead to tell.
+     */
+    default boolean has(int index) {
+        return index < size();
+    }
+
+    /**
+     * Tell that the tokens before the index will not be asked for again, so a stream may drop them.
+     */
+    default void release(int index) {
+    }
+
+    LexType getLexType(int index);
+
+    String getRawValue(int index);
+
+    int getLineNum(int index);
+
+    int getColNum(int index);
+
+    /**
+     * @return The id of the name if the token is an identifier, otherwise -1.
+     */
+    int getIdentId(int index);
+
+    /**
+     * @return A {@link Token} for the token at the index. It may be a new object on every call.
+     */
+    Token getToken(int index);
+}
@@ -0,0 +1,133 @@
+package frontEnd.lexer;
+
+import frontEnd.lexer.dataStruct.LexType;
+import frontEnd.lexer.dataStruct.Token;
+
+import java.util.Optional;
+
+/**
+ * Tokens pulled from a lexer on demand, for a parser that only looks a few tokens ahead.
+ * <p>
+ * The tokens that are read but not yet {@link #release(int) released} are kept in a ring buffer, the window. Going
+ * back to any index in the window (a backtracking point of the parser) is free; the window only grows while the
+ * parser keeps tokens from being released, so memory is bounded by the longest stretch between two releases rather
+ * than by the size of the source.
+ */
+public class TokenStream implements TokenSource {
+    private final static int INITIAL_WINDOW = 64;
+    private final SysYLexer lexer;
+    private Token[] window = new Token[INITIAL_WINDOW];
+    /**
+     * Index of the first token that is not released.
+     */
+    private int base = 0;
+    /**
+     * Number of tokens read from the lexer.
+     */
+    private int filled = 0;
+    private boolean exhausted = false;
+
+    /**
+     * @param lexer The lexer to pull from, positioned where the stream should begin.
+     */
+    public TokenStream(SysYLexer lexer) {
+        this.lexer = lexer;
+    }
+
+    @Override
+    public boolean has(int index) {
+        while (index >= filled && !exhausted) {
+            pull();
+        }
+        return index < filled;
+    }
+
+    /**
+     * Unlike {@link #has(int)}, this reads the rest of the source, and every unreleased token stays in the window.
+     */
+    @Override
+    public int size() {
+        while (!exhausted) {
+            pull();
+        }
+        return filled;
+    }
+
+    @Override
+    public void release(int index) {
+        int to = Math.min(index, filled);
+        for (; base < to; base++) {
+            window[base & (window.length - 1)] = null;
+        }
+    }
+
+    @Override
+    public LexType getLexType(int index) {
+        return getToken(index).getLexType();
+    }
+
+    @Override
+    public String getRawValue(int index) {
+        return getToken(index).getRawValue();
+    }
+
+    @Override
+    public int getLineNum(int index) {
+        return getToken(index).getLineNum();
+    }
+
+    @Override
+    public int getColNum(int index) {
+        return getToken(index).getColNum();
+    }
+
+    @Override
+    public int getIdentId(int index) {
+        return getToken(index).getIdentId();
+    }
+
+    /**
+     * @return The same {@link Token} for every call with the index.
+     */
+    @Override
+    public Token getToken(int index) {
+        if (index < base) {
+            throw new IllegalStateException("Token " + index + " is released, the window begins at " + base);
+        }
+        if (!has(index)) {
+            throw new IndexOutOfBoundsException("Token " + index + " is out of " + filled + " tokens");
+        }
+        return window[index & (window.length - 1)];
+    }
+
+    /**
+     * @return The number of tokens in the window.
+     */
+    public int getWindowSize() {
+        return filled - base;
+    }
+
+    private void pull() {
+        Optional<Token> token;
+        do {
+            token = lexer.next();
+        } while (token.isPresent() && token.get().getLexType() == LexType.COMMENT);
+        if (token.isEmpty()) {
+            exhausted = true;
+            return;
+        }
+        if (filled - base == window.length) {
+            grow();
+        }
+        window[filled & (window.length - 1)] = token.get();
+        filled++;
+    }
+
+    private void grow() {
+        Token[] larger = new Token[window.length * 2];
+        for (int i = base; i < filled; i++) {
+            larger[i & (larger.length - 1)] = window[i & (window.length - 1)];
+        }
+        window = larger;
+    }
+}
@@ -0,0 +1,78 @@
+package frontEnd.lexer.dataStruct;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A decoded FormatString literal: the text runs around its '%d' slots, the number of slots, and whether every
+ * character is allowed.
+ * <p>
+ * FormatString -> '"'{Char}'"', where Char is '%d', '\n' (written as backslash and 'n'), or an ASCII character
+ * 32, 33 or 40-126 other than '\'.
+ */
+public final class FormatString {
+    /**
+     * textRuns[i] is the text before slot i, and the last one is the text after the last slot.
+     */
+    private final List<String> textRuns;
+    private final boolean valid;
+
+    private FormatString(List<String> textRuns, boolean valid) {
+        this.textRuns = Collections.unmodifiableList(textRuns);
+        this.valid = valid;
+    }
+
+    /**
+     * Decode the literal text[start, start + len), quotes included.
+     */
+    public static FormatString of(CharSequence text, int start, int len) {
+        int end = start + len;
+        List<String> textRuns = new ArrayList<>(2);
+        boolean valid = true;
+        int runStart = start + 1;
+        for (int i = start + 1; i < end - 1; i++) {
+            char c = text.charAt(i);
+            if (c == '%') {
+                if (text.charAt(i + 1) == 'd') {
+                    textRuns.add(text.subSequence(runStart, i).toString());
+                    runStart = i + 2;
+                } else {
+                    valid = false;
+                }
+            } else if (c == '\\' && text.charAt(i + 1) != 'n') {
+                valid = false;
+            } else if (c < 32 || (c > 33 && c < 40) || c > 126) {
+                valid = false;
+            }
+        }
+        textRuns.add(text.subSequence(runStart, end - 1).toString());
+        return new FormatString(textRuns, valid);
+    }
+
+    public static FormatString of(String literal) {
+        return of(literal, 0, literal.length());
+    }
+
+    /**
+     * @return The number of '%d' in the literal.
+     */
+    public int getPlaceholderCount() {
+        return textRuns.size() - 1;
+    }
+
+    /**
+     * @return The text runs, one more than the placeholders: run i comes before placeholder i. A run is kept as it is
+     * written, i.e. '\n' is still a backslash and an 'n'.
+     */
+    public List<String> getTextRuns() {
+        return textRuns;
+    }
+
+    /**
+     * @return False if the literal has a character that a FormatString must not have.
+     */
+    public boolean isValid() {
+        return valid;
+    }
+}
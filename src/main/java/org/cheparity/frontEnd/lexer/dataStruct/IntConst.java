@@ -0,0 +1,33 @@
+package frontEnd.lexer.dataStruct;
+
+/**
+ * Decodes IntConst literals.
+ */
+public final class IntConst {
+    private IntConst() {
+    }
+
+    /**
+     * Decode the decimal digits text[start, start + len).
+     *
+     * @return The value, or Long.MAX_VALUE if it does not even fit in a long.
+     */
+    public static long parse(CharSequence text, int start, int len) {
+        long value = 0;
+        for (int i = start, end = start + len; i < end; i++) {
+            int digit = text.charAt(i) - '0';
+            if (value > (Long.MAX_VALUE - digit) / 10) {
+                return Long.MAX_VALUE;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * @return True if the value is too large for an int. Note that 2147483648 is still meaningful after a unary minus.
+     */
+    public static boolean isOverflow(long value) {
+        return value > Integer.MAX_VALUE;
+    }
+}
@@ -4,7 +4,6 @@ import exception.LexErrorException;
 import frontEnd.parser.dataStruct.utils.LoggerUtil;
 import frontEnd.parser.dataStruct.utils.RegUtil;
 
-import java.util.Arrays;
 import java.util.regex.Pattern;
 
 public enum LexType {
@@ -31,15 +30,18 @@ public enum LexType {
 
     /**
      * Find LexType Enum corresponding with value.
+     * <p>
+     * Lexers that already know whether the lexeme is a literal or an identifier should use {@link LexTypeClassifier}
+     * directly, which never runs a regex.
      *
      * @param value The given value.
      * @return The corresponding LexType.
      */
     public static LexType ofValue(String value) {
         assert (value != null);
-        var res = Arrays.stream(LexType.values()).filter(lexType -> lexType.getValue().equals(value)).findFirst();
-        if (res.isPresent()) {
-            return res.get();
+        LexType reserved = LexTypeClassifier.ofReserved(value, 0, value.length());
+        if (reserved != null) {
+            return reserved;
         }
         if (Pattern.matches(RegUtil.NUM_REG, value)) {
             return INTCON;
@@ -0,0 +1,109 @@
+package frontEnd.lexer.dataStruct;
+
+/**
+ * Resolves reserved words and punctuation to their {@link LexType} without regex or allocation.
+ * <p>
+ * Keywords are dispatched on length and then on the first character, so at most one region comparison is made;
+ * operators and punctuation are looked up in a table indexed by their first character.
+ */
+public final class LexTypeClassifier {
+    private final static LexType[] SINGLE_CHAR = new LexType[128];
+
+    static {
+        for (LexType lexType : LexType.values()) {
+            String value = lexType.getValue();
+            if ((lexType.isOperator() || lexType.isPunctuation()) && value.length() == 1) {
+                SINGLE_CHAR[value.charAt(0)] = lexType;
+            }
+        }
+    }
+
+    private LexTypeClassifier() {
+    }
+
+    /**
+     * Find the keyword spelled by text[start, start + len).
+     *
+     * @return The keyword, or null if the lexeme is an ordinary identifier.
+     */
+    public static LexType ofKeyword(CharSequence text, int start, int len) {
+        char c = text.charAt(start);
+        return switch (len) {
+            case 2 -> c == 'i' && matches(text, start, "if") ? LexType.IFTK : null;
+            case 3 -> switch (c) {
+                case 'i' -> matches(text, start, "int") ? LexType.INTTK : null;
+                case 'f' -> matches(text, start, "for") ? LexType.FORTK : null;
+                default -> null;
+            };
+            case 4 -> switch (c) {
+                case 'v' -> matches(text, start, "void") ? LexType.VOIDTK : null;
+                case 'm' -> matches(text, start, "main") ? LexType.MAINTK : null;
+                case 'e' -> matches(text, start, "else") ? LexType.ELSETK : null;
+                default -> null;
+            };
+            case 5 -> switch (c) {
+                case 'c' -> matches(text, start, "const") ? LexType.CONSTTK : null;
+                case 'b' -> matches(text, start, "break") ? LexType.BREAKTK : null;
+                default -> null;
+            };
+            case 6 -> switch (c) {
+                case 'g' -> matches(text, start, "getint") ? LexType.GETINTTK : null;
+                case 'p' -> matches(text, start, "printf") ? LexType.PRINTFTK : null;
+                case 'r' -> matches(text, start, "return") ? LexType.RETURNTK : null;
+                default -> null;
+            };
+            case 8 -> c == 'c' && matches(text, start, "continue") ? LexType.CONTINUETK : null;
+            default -> null;
+        };
+    }
+
+    /**
+     * Find the operator or punctuation spelled by text[start, start + len).
+     *
+     * @return The operator or punctuation, or null if there is no such symbol.
+     */
+    public static LexType ofSymbol(CharSequence text, int start, int len) {
+        char c = text.charAt(start);
+        if (len == 1) {
+            return c < 128 ? SINGLE_CHAR[c] : null;
+        }
+        if (len != 2) {
+            return null;
+        }
+        char c2 = text.charAt(start + 1);
+        return switch (c) {
+            case '<' -> c2 == '=' ? LexType.LEQ : null;
+            case '>' -> c2 == '=' ? LexType.GEQ : null;
+            case '=' -> c2 == '=' ? LexType.EQL : null;
+            case '!' -> c2 == '=' ? LexType.NEQ : null;
+            case '&' -> c2 == '&' ? LexType.AND : null;
+            case '|' -> c2 == '|' ? LexType.OR : null;
+            default -> null;
+        };
+    }
+
+    /**
+     * Find the keyword, operator or punctuation spelled by text[start, start + len).
+     *
+     * @return The reserved LexType, or null if the lexeme is not reserved.
+     */
+    public static LexType ofReserved(CharSequence text, int start, int len) {
+        if (len == 0) {
+            return null;
+        }
+        char c = text.charAt(start);
+        if (c >= 'a' && c <= 'z') {
+            return ofKeyword(text, start, len);
+        }
+        return ofSymbol(text, start, len);
+    }
+
+    private static boolean matches(CharSequence text, int start, String word) {
+        for (int i = 1; i < word.length(); i++) {
+            if (text.charAt(start + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,75 @@
+package frontEnd.lexer.dataStruct;
+
+import java.util.Arrays;
+
+/**
+ * Maps source offsets to line and column numbers.
+ * <p>
+ * The offsets where lines start are collected by one scan of the source; a line number is then found by binary search,
+ * so a token only needs to remember its offset.
+ */
+public final class LineIndex {
+    private final CharSequence text;
+    /**
+     * lineStarts[i] is the offset of the first character of line i + 1.
+     */
+    private final int[] lineStarts;
+    private final int lineCount;
+
+    private LineIndex(CharSequence text, int[] lineStarts, int lineCount) {
+        this.text = text;
+        this.lineStarts = lineStarts;
+        this.lineCount = lineCount;
+    }
+
+    public static LineIndex of(CharSequence text) {
+        int[] lineStarts = new int[64];
+        int lineCount = 1;
+        for (int i = 0, len = text.length(); i < len; i++) {
+            if (text.charAt(i) == '\n') {
+                if (lineCount == lineStarts.length) {
+                    lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+                }
+                lineStarts[lineCount++] = i + 1;
+            }
+        }
+        return new LineIndex(text, lineStarts, lineCount);
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return The offset of the first character of the line, 1-based.
+     */
+    public int lineStart(int lineNum) {
+        return lineStarts[lineNum - 1];
+    }
+
+    /**
+     * @return The line of the offset, 1-based.
+     */
+    public int lineOf(int offset) {
+        int pos = Arrays.binarySearch(lineStarts, 0, lineCount, offset);
+        return pos >= 0 ? pos + 1 : -pos - 1;
+    }
+
+    /**
+     * Column of the text in [start, end), 1-based.
+     * <p>
+     * The value agrees with what {@code LexerImpl} has always reported, so errors sort in the same order: a token that
+     * is directly followed by '\n' gets minus its length, and a token on the line after a '\n' at offset 0 is
+     * counted from the beginning of the source.
+     */
+    public int columnOf(int start, int end) {
+        if (end > 0 && end < text.length() && text.charAt(end) == '\n') {
+            return start - end;
+        }
+        int prevNewline = lineStart(lineOf(start)) - 1;
+        if (prevNewline <= 0) {
+            return start + 1;
+        }
+        return start - prevNewline;
+    }
+}
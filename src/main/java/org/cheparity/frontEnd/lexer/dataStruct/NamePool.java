@@ -0,0 +1,105 @@
+package frontEnd.lexer.dataStruct;
+
+import java.util.Arrays;
+
+/**
+ * Interns identifiers. Every distinct name is given a dense id, 0, 1, 2, ... in the order it is first seen, so later
+ * passes can compare and look up names by their id instead of hashing strings.
+ * <p>
+ * The pool is filled by the lexer. A name is hashed straight from the source text, and a {@link String} is only
+ * created the first time the name is seen; every later occurrence shares that instance.
+ */
+public final class NamePool {
+    private final static int INITIAL_CAPACITY = 64;
+    /**
+     * Open-addressing table of id + 1, 0 for an empty slot. Its length is a power of two.
+     */
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Find or add the name spelled by text[start, start + len).
+     *
+     * @return The id of the name.
+     */
+    public int intern(CharSequence text, int start, int len) {
+        int hash = hash(text, start, len);
+        int mask = slots.length - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            int id = slots[i] - 1;
+            if (id < 0) {
+                id = add(text.subSequence(start, start + len).toString(), hash);
+                slots[i] = id + 1;
+                if (size * 2 > slots.length) {
+                    rehash();
+                }
+                return id;
+            }
+            if (hashes[id] == hash && matches(names[id], text, start, len)) {
+                return id;
+            }
+        }
+    }
+
+    public int intern(String name) {
+        return intern(name, 0, name.length());
+    }
+
+    /**
+     * @return The name of the id, the same instance for every call.
+     */
+    public String getName(int id) {
+        return names[id];
+    }
+
+    /**
+     * @return The number of distinct names, all ids are less than it.
+     */
+    public int size() {
+        return size;
+    }
+
+    private int add(String name, int hash) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        names[size] = name;
+        hashes[size] = hash;
+        return size++;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int i = hashes[id] & mask;
+            while (slots[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            slots[i] = id + 1;
+        }
+    }
+
+    private static int hash(CharSequence text, int start, int len) {
+        int h = 0;
+        for (int i = start, end = start + len; i < end; i++) {
+            h = 31 * h + text.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(String name, CharSequence text, int start, int len) {
+        if (name.length() != len) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (name.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,106 @@
+package frontEnd.lexer.dataStruct;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The raw bytes of a source file, viewed as a {@link CharSequence}.
+ * <p>
+ * SysY sources are ASCII, so a byte is read as a char directly and the file never needs to be decoded as a whole.
+ * Non-ASCII bytes are only meaningful inside string literals and comments; they are decoded as UTF-8 when the text
+ * of a token is asked for.
+ */
+public final class SourceBuffer implements CharSequence {
+    private final ByteBuffer bytes;
+    private final int length;
+    private volatile LineIndex lineIndex;
+
+    private SourceBuffer(ByteBuffer bytes) {
+        this.bytes = bytes;
+        this.length = bytes.limit();
+    }
+
+    /**
+     * Map the file into memory. The file must be smaller than 2GB.
+     *
+     * @param path The source file.
+     * @return The mapped source.
+     */
+    public static SourceBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new SourceBuffer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static SourceBuffer of(String source) {
+        return of(source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param bytes The source encoded as UTF-8, which is not copied.
+     */
+    public static SourceBuffer of(byte[] bytes) {
+        return new SourceBuffer(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * @return The line index of this source. It is built on the first call, and then read without a lock, as tokens of
+     * the same source may be read by many threads.
+     */
+    public LineIndex getLineIndex() {
+        LineIndex index = lineIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = lineIndex;
+                if (index == null) {
+                    lineIndex = index = LineIndex.of(this);
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @return A read-only view of the bytes, for scanners that read many bytes at a time.
+     */
+    public ByteBuffer getBytes() {
+        return bytes.asReadOnlyBuffer();
+    }
+
+    public byte byteAt(int index) {
+        return bytes.get(index);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (bytes.get(index) & 0xff);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return substring(start, end);
+    }
+
+    /**
+     * Decode the text in [start, end).
+     */
+    public String substring(int start, int end) {
+        byte[] dst = new byte[end - start];
+        bytes.get(start, dst, 0, dst.length);
+        return new String(dst, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return substring(0, length);
+    }
+}
@@ -0,0 +1,66 @@
+package frontEnd.lexer.dataStruct;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An edit of a source: the bytes in [offset, offset + removedLength) are replaced by the inserted text. Offsets are in
+ * bytes, the same as the offsets of tokens, see {@link SourceBuffer}.
+ */
+public final class TextEdit {
+    private final int offset;
+    private final int removedLength;
+    private final byte[] inserted;
+
+    public TextEdit(int offset, int removedLength, String insertedText) {
+        if (offset < 0 || removedLength < 0) {
+            throw new IllegalArgumentException("Bad edit at " + offset + " removing " + removedLength);
+        }
+        this.offset = offset;
+        this.removedLength = removedLength;
+        this.inserted = insertedText.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getRemovedLength() {
+        return removedLength;
+    }
+
+    /**
+     * @return The offset after the removed bytes, in the source before the edit.
+     */
+    public int getRemovedEnd() {
+        return offset + removedLength;
+    }
+
+    /**
+     * @return The offset after the inserted bytes, in the source after the edit.
+     */
+    public int getInsertedEnd() {
+        return offset + inserted.length;
+    }
+
+    /**
+     * @return How far the text after the edit moves.
+     */
+    public int getDelta() {
+        return inserted.length - removedLength;
+    }
+
+    /**
+     * @return The source after the edit. The source itself is left as it is.
+     */
+    public SourceBuffer apply(SourceBuffer source) {
+        if (getRemovedEnd() > source.length()) {
+            throw new IndexOutOfBoundsException("Edit [" + offset + ", " + getRemovedEnd() + ") out of a source of "
+                    + source.length() + " bytes");
+        }
+        byte[] bytes = new byte[source.length() + getDelta()];
+        source.getBytes().get(0, bytes, 0, offset);
+        System.arraycopy(inserted, 0, bytes, offset, inserted.length);
+        source.getBytes().get(getRemovedEnd(), bytes, getInsertedEnd(), source.length() - getRemovedEnd());
+        return SourceBuffer.of(bytes);
+    }
+}
@@ -1,20 +1,135 @@
 package frontEnd.lexer.dataStruct;
 
 public final class Token {
-    private final int lineNum;
-    private final int colNum;
+    /**
+     * 0 until derived from the source, for tokens that are taken from a {@link SourceBuffer}.
+     */
+    private int lineNum;
+    private int colNum;
     private final LexType lexType;
-    private final String rawValue;
+    /**
+     * The source this token is taken from, null if the raw value is given directly. It only changes when the token is
+     * {@link #moveTo moved} to an edited source.
+     */
+    private SourceBuffer source;
+    private int offset;
+    private final int length;
+    /**
+     * The id of the name in the {@link NamePool} of the lexer for an identifier, -1 for other tokens.
+     */
+    private final int identId;
+    /**
+     * The value of an IntConst, the low 32 bits if it overflows.
+     */
+    private final int intValue;
+    private final boolean overflow;
+    /**
+     * The decoded FormatString, null for other tokens.
+     */
+    private final FormatString formatString;
+    private String rawValue;
 
 
     public Token(int lineNum, int colNum, String rawValue) {
+        this(lineNum, colNum, rawValue, LexType.ofValue(rawValue));
+    }
+
+    public Token(int lineNum, int colNum, String rawValue, LexType lexType) {
+        this(lineNum, colNum, rawValue, lexType, -1);
+    }
+
+    /**
+     * @param identId The id of the name in the {@link NamePool} for an identifier, which must be given, -1 for other
+     *                tokens.
+     * @throws IllegalArgumentException If an identifier is given no id.
+     */
+    public Token(int lineNum, int colNum, String rawValue, LexType lexType, int identId) {
+        checkIdentId(lexType, identId);
         this.lineNum = lineNum;
         this.colNum = colNum;
-        this.lexType = LexType.ofValue(rawValue);
+        this.lexType = lexType;
         this.rawValue = rawValue;
+        this.source = null;
+        this.offset = -1;
+        this.length = rawValue.length();
+        this.identId = identId;
+        long value = lexType == LexType.INTCON ? IntConst.parse(rawValue, 0, length) : 0;
+        this.intValue = (int) value;
+        this.overflow = IntConst.isOverflow(value);
+        this.formatString = lexType == LexType.STRCON ? FormatString.of(rawValue) : null;
+    }
+
+    /**
+     * The text of the token is only referenced by offset and length, and is decoded when first asked for. The line and
+     * column are derived from the {@link LineIndex} of the source on demand.
+     *
+     * @throws IllegalArgumentException If the token is an identifier, which is made with the id of its name, see
+     *                                  {@link #Token(SourceBuffer, int, int, int, String)}.
+     */
+    public Token(LexType lexType, SourceBuffer source, int offset, int length) {
+        checkIdentId(lexType, -1);
+        this.lexType = lexType;
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+        this.identId = -1;
+        long value = lexType == LexType.INTCON ? IntConst.parse(source, offset, length) : 0;
+        this.intValue = (int) value;
+        this.overflow = IntConst.isOverflow(value);
+        this.formatString = lexType == LexType.STRCON ? FormatString.of(source, offset, length) : null;
+        if (lexType.isPreserved()) {
+            this.rawValue = lexType.getValue();
+        }
+    }
+
+    /**
+     * An identifier taken from a {@link SourceBuffer}. Its text is the interned name, so it is never decoded again.
+     */
+    public Token(SourceBuffer source, int offset, int length, int identId, String name) {
+        checkIdentId(LexType.IDENFR, identId);
+        this.lexType = LexType.IDENFR;
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+        this.identId = identId;
+        this.intValue = 0;
+        this.overflow = false;
+        this.formatString = null;
+        this.rawValue = name;
+    }
+
+    /**
+     * An IntConst taken from a {@link SourceBuffer}, whose value is already decoded by the lexer.
+     */
+    public Token(SourceBuffer source, int offset, int length, int intValue, boolean overflow) {
+        this.lexType = LexType.INTCON;
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+        this.identId = -1;
+        this.intValue = intValue;
+        this.overflow = overflow;
+        this.formatString = null;
+    }
+
+    /**
+     * A FormatString taken from a {@link SourceBuffer}, already decoded by the lexer.
+     */
+    public Token(SourceBuffer source, int offset, int length, FormatString formatString) {
+        this.lexType = LexType.STRCON;
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+        this.identId = -1;
+        this.intValue = 0;
+        this.overflow = false;
+        this.formatString = formatString;
     }
 
     public int getLineNum() {
+        if (lineNum == 0) {
+            lineNum = source.getLineIndex().lineOf(offset);
+        }
         return lineNum;
     }
 
@@ -23,10 +138,76 @@ public final class Token {
     }
 
     public int getColNum() {
+        if (colNum == 0) {
+            colNum = source.getLineIndex().columnOf(offset, offset + length);
+        }
         return colNum;
     }
 
+    /**
+     * @return The offset of the token in its source, -1 if the token is not taken from a {@link SourceBuffer}.
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Move the token to the same text in an edited source, for the tokens after an edit whose leaves are kept. Its line
+     * and column are derived again. Not to be called while other threads read the token.
+     */
+    public void moveTo(SourceBuffer source, int offset) {
+        assert this.source != null && source.length() >= offset + length;
+        this.source = source;
+        this.offset = offset;
+        this.lineNum = 0;
+        this.colNum = 0;
+    }
+
+    /**
+     * @return The id of the name if the token is an identifier, otherwise -1.
+     */
+    public int getIdentId() {
+        return identId;
+    }
+
+    /**
+     * Identifiers are looked up by the id of their name, which -1 is not.
+     */
+    private static void checkIdentId(LexType lexType, int identId) {
+        if (lexType == LexType.IDENFR && identId < 0) {
+            throw new IllegalArgumentException("Identifier without the id of its name: " + identId);
+        }
+    }
+
+    /**
+     * @return The value if the token is an IntConst, the low 32 bits of it if it {@link #isOverflow() overflows}.
+     */
+    public int getIntValue() {
+        return intValue;
+    }
+
+    /**
+     * @return True if the token is an IntConst greater than {@link Integer#MAX_VALUE}.
+     */
+    public boolean isOverflow() {
+        return overflow;
+    }
+
+    /**
+     * @return The decoded literal if the token is a FormatString, otherwise null.
+     */
+    public FormatString getFormatString() {
+        return formatString;
+    }
+
     public String getRawValue() {
+        if (rawValue == null) {
+            rawValue = source.substring(offset, offset + length);
+        }
         return rawValue;
     }
 
@@ -34,7 +215,7 @@ public final class Token {
     @Override
     public String toString() {
         return "Token{" +
-                "rawValue=" + rawValue +
+                "rawValue=" + getRawValue() +
                 ", lexType='" + lexType + '\'' +
                 '}';
 
@@ -0,0 +1,59 @@
+package frontEnd.lexer.impl;
+
+import frontEnd.parser.dataStruct.utils.LoggerUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Bulk scans over source bytes, used by {@link DfaLexer} to skip the long runs of a source that do not change the
+ * state of its automaton: blanks, the rest of an identifier, and the bodies of comments and string literals.
+ * <p>
+ * Every method scans bytes[from, end) and returns end if nothing is found.
+ */
+public interface ByteScanner {
+
+    /**
+     * The scanner that reads many bytes at a time with the Vector API if module jdk.incubator.vector is present
+     * (java --add-modules jdk.incubator.vector), otherwise the scalar one.
+     */
+    static ByteScanner getInstance() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return new VectorByteScanner();
+            } catch (LinkageError e) {
+                LoggerUtil.getLogger().warning("Vector API is not usable, fall back to scalar scanning: " + e);
+            }
+        }
+        return scalar();
+    }
+
+    /**
+     * The scanner that reads one byte at a time.
+     */
+    static ByteScanner scalar() {
+        return ScalarByteScanner.INSTANCE;
+    }
+
+    /**
+     * Blanks are the bytes that the lexer skips: whitespace, and bytes that are no part of any token, i.e. control
+     * characters, '\\', '`', '~' and non-ASCII bytes.
+     *
+     * @return The index of the first byte that is not blank.
+     */
+    int skipBlanks(ByteBuffer bytes, int from, int end);
+
+    /**
+     * @return The index of the first byte that is not a letter, a digit or '_'.
+     */
+    int skipIdent(ByteBuffer bytes, int from, int end);
+
+    /**
+     * @return The index of the first byte b.
+     */
+    int indexOf(ByteBuffer bytes, byte b, int from, int end);
+
+    /**
+     * @return The index of the first byte a or b.
+     */
+    int indexOfEither(ByteBuffer bytes, byte a, byte b, int from, int end);
+}
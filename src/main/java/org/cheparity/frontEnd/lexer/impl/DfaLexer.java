@@ -0,0 +1,445 @@
+package frontEnd.lexer.impl;
+
+import exception.LexErrorException;
+import frontEnd.lexer.LexPool;
+import frontEnd.lexer.SysYLexer;
+import frontEnd.lexer.TokenEdit;
+import frontEnd.lexer.dataStruct.FormatString;
+import frontEnd.lexer.dataStruct.IntConst;
+import frontEnd.lexer.dataStruct.LexType;
+import frontEnd.lexer.dataStruct.LexTypeClassifier;
+import frontEnd.lexer.dataStruct.NamePool;
+import frontEnd.lexer.dataStruct.SourceBuffer;
+import frontEnd.lexer.dataStruct.TextEdit;
+import frontEnd.lexer.dataStruct.Token;
+import frontEnd.parser.dataStruct.utils.LoggerUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Table-driven lexer. Every character is mapped to a character class through {@link #CHAR_CLASS} and fed into the
+ * transition table {@link #TRANSITION}; the longest accepted prefix becomes the next token (maximal munch).
+ * <p>
+ * Comments, string literals and the two-character operators are all recognized by the same automaton, so the source
+ * is walked exactly once and nothing is allocated per character. The source is read as bytes from a
+ * {@link SourceBuffer}, and tokens only keep the offset and length of their text. Identifiers are interned into a
+ * {@link NamePool} as they are accepted, and literals are decoded once here (see {@link IntConst} and
+ * {@link FormatString}).
+ * <p>
+ * Runs that never leave a state (blanks, the rest of an identifier, the body of a comment or a string literal) are
+ * skipped by a {@link ByteScanner}, which reads many bytes at a time when the Vector API is available.
+ */
+public class DfaLexer implements SysYLexer {
+    private final static Logger LOGGER = LoggerUtil.getLogger();
+    private final static String FILENAME = "./testfile.txt";
+
+    // Character classes
+    private final static int C_OTHER = 0; // unknown characters are skipped, the same as LexerImpl does
+    private final static int C_BLANK = 1;
+    private final static int C_NEWLINE = 2;
+    private final static int C_DIGIT = 3; // '1' to '9'
+    private final static int C_ALPHA = 4;
+    private final static int C_QUOTE = 5;
+    private final static int C_SLASH = 6;
+    private final static int C_STAR = 7;
+    private final static int C_EQ = 8;
+    private final static int C_CMP = 9; // '!', '<', '>'
+    private final static int C_AMP = 10;
+    private final static int C_BAR = 11;
+    private final static int C_SINGLE = 12;
+    private final static int C_ZERO = 13;
+    private final static int CLASS_COUNT = 14;
+
+    // States
+    private final static int S_DEAD = -1;
+    private final static int S_START = 0;
+    private final static int S_BLANK = 1;
+    private final static int S_IDENT = 2;
+    private final static int S_NUMBER = 3;
+    private final static int S_STRING = 4;
+    private final static int S_STRING_END = 5;
+    private final static int S_SLASH = 6;
+    private final static int S_LINE_COMMENT = 7;
+    private final static int S_LINE_COMMENT_END = 8;
+    private final static int S_BLOCK_COMMENT = 9;
+    private final static int S_BLOCK_COMMENT_STAR = 10;
+    private final static int S_BLOCK_COMMENT_END = 11;
+    private final static int S_OP = 12;
+    private final static int S_OP_PREFIX = 13; // '=', '!', '<', '>' which may be followed by '='
+    private final static int S_AMP = 14;
+    private final static int S_BAR = 15;
+    private final static int S_ZERO = 16;
+    private final static int S_LEADING_ZERO = 17; // digits after a '0', which no IntConst begins with
+    private final static int STATE_COUNT = 18;
+
+    // What to do when the automaton stops in a state
+    private final static byte A_REJECT = 0;
+    private final static byte A_SKIP = 1;
+    private final static byte A_TOKEN = 2;
+    private final static byte A_COMMENT = 3;
+
+    private final static byte[] CHAR_CLASS = new byte[128];
+    private final static byte[][] TRANSITION = new byte[STATE_COUNT][CLASS_COUNT];
+    private final static byte[] ACTION = new byte[STATE_COUNT];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            if (c >= '1' && c <= '9') CHAR_CLASS[c] = C_DIGIT;
+            else if (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_') CHAR_CLASS[c] = C_ALPHA;
+            else if (Character.isWhitespace(c)) CHAR_CLASS[c] = C_BLANK;
+        }
+        CHAR_CLASS['0'] = C_ZERO;
+        CHAR_CLASS['\n'] = C_NEWLINE;
+        CHAR_CLASS['"'] = C_QUOTE;
+        CHAR_CLASS['/'] = C_SLASH;
+        CHAR_CLASS['*'] = C_STAR;
+        CHAR_CLASS['='] = C_EQ;
+        CHAR_CLASS['!'] = C_CMP;
+        CHAR_CLASS['<'] = C_CMP;
+        CHAR_CLASS['>'] = C_CMP;
+        CHAR_CLASS['&'] = C_AMP;
+        CHAR_CLASS['|'] = C_BAR;
+        for (char c : "%+-;,()[]{}'@#$^:?.".toCharArray()) {
+            CHAR_CLASS[c] = C_SINGLE;
+        }
+
+        for (byte[] row : TRANSITION) {
+            Arrays.fill(row, (byte) S_DEAD);
+        }
+        TRANSITION[S_START][C_OTHER] = S_BLANK;
+        TRANSITION[S_START][C_BLANK] = S_BLANK;
+        TRANSITION[S_START][C_NEWLINE] = S_BLANK;
+        TRANSITION[S_START][C_DIGIT] = S_NUMBER;
+        TRANSITION[S_START][C_ZERO] = S_ZERO;
+        TRANSITION[S_START][C_ALPHA] = S_IDENT;
+        TRANSITION[S_START][C_QUOTE] = S_STRING;
+        TRANSITION[S_START][C_SLASH] = S_SLASH;
+        TRANSITION[S_START][C_STAR] = S_OP;
+        TRANSITION[S_START][C_EQ] = S_OP_PREFIX;
+        TRANSITION[S_START][C_CMP] = S_OP_PREFIX;
+        TRANSITION[S_START][C_AMP] = S_AMP;
+        TRANSITION[S_START][C_BAR] = S_BAR;
+        TRANSITION[S_START][C_SINGLE] = S_OP;
+
+        TRANSITION[S_BLANK][C_OTHER] = S_BLANK;
+        TRANSITION[S_BLANK][C_BLANK] = S_BLANK;
+        TRANSITION[S_BLANK][C_NEWLINE] = S_BLANK;
+
+        TRANSITION[S_IDENT][C_ALPHA] = S_IDENT;
+        TRANSITION[S_IDENT][C_DIGIT] = S_IDENT;
+        TRANSITION[S_IDENT][C_ZERO] = S_IDENT;
+        TRANSITION[S_NUMBER][C_DIGIT] = S_NUMBER;
+        TRANSITION[S_NUMBER][C_ZERO] = S_NUMBER;
+        TRANSITION[S_ZERO][C_DIGIT] = S_LEADING_ZERO;
+        TRANSITION[S_ZERO][C_ZERO] = S_LEADING_ZERO;
+        TRANSITION[S_LEADING_ZERO][C_DIGIT] = S_LEADING_ZERO;
+        TRANSITION[S_LEADING_ZERO][C_ZERO] = S_LEADING_ZERO;
+
+        Arrays.fill(TRANSITION[S_STRING], (byte) S_STRING);
+        TRANSITION[S_STRING][C_NEWLINE] = S_DEAD;
+        TRANSITION[S_STRING][C_QUOTE] = S_STRING_END;
+
+        TRANSITION[S_SLASH][C_SLASH] = S_LINE_COMMENT;
+        TRANSITION[S_SLASH][C_STAR] = S_BLOCK_COMMENT;
+        Arrays.fill(TRANSITION[S_LINE_COMMENT], (byte) S_LINE_COMMENT);
+        TRANSITION[S_LINE_COMMENT][C_NEWLINE] = S_LINE_COMMENT_END;
+        Arrays.fill(TRANSITION[S_BLOCK_COMMENT], (byte) S_BLOCK_COMMENT);
+        TRANSITION[S_BLOCK_COMMENT][C_STAR] = S_BLOCK_COMMENT_STAR;
+        Arrays.fill(TRANSITION[S_BLOCK_COMMENT_STAR], (byte) S_BLOCK_COMMENT);
+        TRANSITION[S_BLOCK_COMMENT_STAR][C_STAR] = S_BLOCK_COMMENT_STAR;
+        TRANSITION[S_BLOCK_COMMENT_STAR][C_SLASH] = S_BLOCK_COMMENT_END;
+
+        TRANSITION[S_OP_PREFIX][C_EQ] = S_OP;
+        TRANSITION[S_AMP][C_AMP] = S_OP;
+        TRANSITION[S_BAR][C_BAR] = S_OP;
+
+        ACTION[S_BLANK] = A_SKIP;
+        ACTION[S_IDENT] = A_TOKEN;
+        ACTION[S_NUMBER] = A_TOKEN;
+        ACTION[S_ZERO] = A_TOKEN;
+        // "08" is not a SysY token, it is reported by lexTypeOf the same way as LexerImpl does
+        ACTION[S_LEADING_ZERO] = A_TOKEN;
+        ACTION[S_STRING_END] = A_TOKEN;
+        ACTION[S_SLASH] = A_TOKEN;
+        ACTION[S_LINE_COMMENT] = A_COMMENT; // a line comment may end at EOF without '\n'
+        ACTION[S_LINE_COMMENT_END] = A_COMMENT;
+        ACTION[S_BLOCK_COMMENT_END] = A_COMMENT;
+        ACTION[S_OP] = A_TOKEN;
+        ACTION[S_OP_PREFIX] = A_TOKEN;
+        // a single '&' or '|' is not a SysY token, it is reported by lexTypeOf the same way as LexerImpl does
+        ACTION[S_AMP] = A_TOKEN;
+        ACTION[S_BAR] = A_TOKEN;
+    }
+
+    private final SourceBuffer source;
+    private final ByteBuffer bytes;
+    private final ByteScanner scanner;
+    /**
+     * The lexer only reads source[begin, sourceLen).
+     */
+    private final int begin;
+    private final int sourceLen;
+    private final NamePool names;
+    private final LexPool lexPool;
+    private int curPos;
+    // The token found by the last call of scan()
+    private int tokenStart;
+    private int tokenLength;
+
+    public DfaLexer(SourceBuffer source) {
+        this(source, ByteScanner.getInstance());
+    }
+
+    public DfaLexer(SourceBuffer source, ByteScanner scanner) {
+        this(source, 0, source.length(), scanner);
+    }
+
+    /**
+     * Lex only source[begin, end). Both ends must be where the automaton is in its start state, i.e. not inside a
+     * token, a comment or a string literal. Offsets of the tokens are still offsets in the whole source.
+     */
+    DfaLexer(SourceBuffer source, int begin, int end, ByteScanner scanner) {
+        this(source, begin, end, scanner, new NamePool());
+    }
+
+    /**
+     * A lexer that interns identifiers into the names of another lexer, e.g. of the source before an edit, see
+     * {@link #relex(LexPool, TextEdit)}.
+     */
+    public DfaLexer(SourceBuffer source, NamePool names) {
+        this(source, 0, source.length(), ByteScanner.getInstance(), names);
+    }
+
+    private DfaLexer(SourceBuffer source, int begin, int end, ByteScanner scanner, NamePool names) {
+        this.names = names;
+        this.source = source;
+        this.bytes = source.getBytes();
+        this.scanner = scanner;
+        this.begin = begin;
+        this.sourceLen = end;
+        this.curPos = begin;
+        this.lexPool = new LexPool(source, names);
+    }
+
+    public DfaLexer(Path path) throws IOException {
+        this(SourceBuffer.map(path));
+    }
+
+    public DfaLexer(String source) {
+        this(SourceBuffer.of(source));
+    }
+
+    public static SysYLexer getInstance() {
+        return Holder.LEXER_INSTANCE;
+    }
+
+    @Override
+    public Optional<Token> next() {
+        LexType lexType = scan();
+        if (lexType == null) {
+            return Optional.empty();
+        }
+        return Optional.of(switch (lexType) {
+            case IDENFR -> {
+                int id = names.intern(source, tokenStart, tokenLength);
+                yield new Token(source, tokenStart, tokenLength, id, names.getName(id));
+            }
+            case INTCON -> {
+                long value = IntConst.parse(source, tokenStart, tokenLength);
+                yield new Token(source, tokenStart, tokenLength, (int) value, IntConst.isOverflow(value));
+            }
+            case STRCON -> new Token(source, tokenStart, tokenLength, FormatString.of(source, tokenStart, tokenLength));
+            default -> new Token(lexType, source, tokenStart, tokenLength);
+        });
+    }
+
+    @Override
+    public void reset() {
+        this.curPos = begin;
+    }
+
+    @Override
+    public List<Token> getAllTokens() {
+        return tokenize().getTokens();
+    }
+
+    @Override
+    public LexPool tokenize() {
+        reset();
+        this.lexPool.clean();
+        LexType lexType;
+        while ((lexType = scan()) != null) {
+            add(lexPool, lexType);
+        }
+        return lexPool;
+    }
+
+    /**
+     * Lex this source, which is the one before the edit with the edit applied, taking the tokens that the edit does not
+     * touch from the tokens before it. Lexing starts after the last token that ends before the edit, and stops at the
+     * first token after the edit that begins where a token began before it, moved by the delta: the automaton is in its
+     * start state there in both sources, and the text after it is the same.
+     *
+     * @param before The tokens of the source before the edit, lexed with the same names as this lexer.
+     * @return The tokens of this source, and which of them are lexed again.
+     */
+    public TokenEdit relex(LexPool before, TextEdit edit) {
+        assert before.getNamePool() == names;
+        // the first token that ends at or after the edit, which the edit may change or join with the inserted text
+        int low = 0, high = before.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (before.getOffset(mid) + before.getLength(mid) < edit.getOffset()) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int from = low;
+        LexPool tokens = new LexPool(source, names);
+        tokens.appendMoved(before, 0, from, 0);
+        this.curPos = from == 0 ? begin : before.getOffset(from - 1) + before.getLength(from - 1);
+        int old = from;
+        LexType lexType;
+        while ((lexType = scan()) != null) {
+            if (tokenStart >= edit.getInsertedEnd()) {
+                int oldStart = tokenStart - edit.getDelta();
+                while (old < before.size() && before.getOffset(old) < oldStart) {
+                    old++;
+                }
+                if (old < before.size() && before.getOffset(old) == oldStart) {
+                    int insertedEnd = tokens.size();
+                    tokens.appendMoved(before, old, before.size(), edit.getDelta());
+                    return new TokenEdit(edit, tokens, from, old, insertedEnd);
+                }
+            }
+            add(tokens, lexType);
+        }
+        return new TokenEdit(edit, tokens, from, before.size(), tokens.size());
+    }
+
+    /**
+     * Add the token found by the last {@link #scan()} to the pool, unless it is a comment.
+     */
+    private void add(LexPool pool, LexType lexType) {
+        switch (lexType) {
+            case COMMENT -> {
+            }
+            case IDENFR -> pool.addToken(lexType, tokenStart, tokenLength,
+                    names.intern(source, tokenStart, tokenLength));
+            case INTCON -> pool.addIntConst(tokenStart, tokenLength,
+                    IntConst.parse(source, tokenStart, tokenLength));
+            case STRCON -> pool.addFormatString(tokenStart, tokenLength,
+                    FormatString.of(source, tokenStart, tokenLength));
+            default -> pool.addToken(lexType, tokenStart, tokenLength, -1);
+        }
+    }
+
+    /**
+     * Run the automaton from the current position until a token (or a comment) is accepted.
+     *
+     * @return The LexType of the token, whose position is left in the token fields. Null if the source is exhausted.
+     */
+    private LexType scan() {
+        while (curPos < sourceLen) {
+            int start = curPos;
+            int c = source.byteAt(start) & 0xff;
+            int charClass = c < 128 ? CHAR_CLASS[c] : C_OTHER;
+            // fast paths for the two runs that occur the most
+            if (charClass == C_BLANK || charClass == C_NEWLINE || charClass == C_OTHER) {
+                curPos = scanner.skipBlanks(bytes, start + 1, sourceLen);
+                continue;
+            }
+            if (charClass == C_ALPHA) {
+                curPos = scanner.skipIdent(bytes, start + 1, sourceLen);
+                tokenStart = start;
+                tokenLength = curPos - start;
+                return lexTypeOf(S_IDENT, start, tokenLength);
+            }
+
+            int state = S_START;
+            int pos = curPos;
+            for (; pos < sourceLen; pos++) {
+                c = source.byteAt(pos) & 0xff;
+                int next = TRANSITION[state][c < 128 ? CHAR_CLASS[c] : C_OTHER];
+                if (next == S_DEAD) break;
+                state = next;
+                // these states are only left on the bytes below, so jump to just before the next of them
+                switch (state) {
+                    case S_STRING -> pos = scanner.indexOfEither(bytes, (byte) '"', (byte) '\n', pos + 1, sourceLen) - 1;
+                    case S_LINE_COMMENT -> pos = scanner.indexOf(bytes, (byte) '\n', pos + 1, sourceLen) - 1;
+                    case S_BLOCK_COMMENT -> pos = scanner.indexOf(bytes, (byte) '*', pos + 1, sourceLen) - 1;
+                    default -> {
+                    }
+                }
+            }
+            curPos = pos;
+
+            switch (ACTION[state]) {
+                case A_SKIP -> {
+                }
+                case A_TOKEN, A_COMMENT -> {
+                    tokenStart = start;
+                    tokenLength = pos - start;
+                    return ACTION[state] == A_COMMENT ? LexType.COMMENT : lexTypeOf(state, start, pos - start);
+                }
+                default -> {
+                    int line = source.getLineIndex().lineOf(start);
+                    LOGGER.severe("Unexpected end of token at line " + line);
+                    throw new LexErrorException("Unterminated token [" + source.substring(start, pos) + "] at line " + line);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The LexType of a token is decided by the state that accepted it, so literals and identifiers never go through
+     * {@link LexType#ofValue}.
+     */
+    private LexType lexTypeOf(int state, int start, int len) {
+        switch (state) {
+            case S_IDENT -> {
+                LexType keyword = LexTypeClassifier.ofKeyword(source, start, len);
+                return keyword == null ? LexType.IDENFR : keyword;
+            }
+            case S_NUMBER, S_ZERO -> {
+                return LexType.INTCON;
+            }
+            case S_STRING_END -> {
+                return LexType.STRCON;
+            }
+            default -> {
+                LexType symbol = LexTypeClassifier.ofSymbol(source, start, len);
+                if (symbol == null) {
+                    String value = source.substring(start, start + len);
+                    LOGGER.severe("LexType [" + value + "] not found.");
+                    throw new LexErrorException("LexType [" + value + "] not found.");
+                }
+                return symbol;
+            }
+        }
+    }
+
+    /**
+     * Reads testfile.txt on the first call of {@link #getInstance()}, not whenever the lexer is loaded.
+     */
+    private static final class Holder {
+        private final static DfaLexer LEXER_INSTANCE;
+
+        static {
+            try {
+                LEXER_INSTANCE = new DfaLexer(Paths.get(FILENAME));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
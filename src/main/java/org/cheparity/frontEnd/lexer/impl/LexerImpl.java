@@ -1,8 +1,11 @@
 package frontEnd.lexer.impl;
 
-import frontEnd.lexer.LexPool;
+import frontEnd.lexer.ListTokenSource;
 import frontEnd.lexer.SysYLexer;
+import frontEnd.lexer.TokenSource;
 import frontEnd.lexer.dataStruct.LexType;
+import frontEnd.lexer.dataStruct.LineIndex;
+import frontEnd.lexer.dataStruct.NamePool;
 import frontEnd.lexer.dataStruct.Token;
 import frontEnd.parser.dataStruct.utils.LoggerUtil;
 import frontEnd.parser.dataStruct.utils.RegUtil;
@@ -20,6 +23,7 @@ public class LexerImpl implements SysYLexer {
     private final static String FILENAME = "./testfile.txt";
     private final static String SOURCE;
     private final static int SOURCE_LEN;
+    private final static LineIndex LINE_INDEX;
 
     static {
         try {
@@ -28,13 +32,11 @@ public class LexerImpl implements SysYLexer {
             throw new RuntimeException(e);
         }
         SOURCE_LEN = SOURCE.length();
+        LINE_INDEX = LineIndex.of(SOURCE);
     }
 
-    private final LexPool lexPool = new LexPool();
-    /**
-     * The line number that may be used for error handler.
-     */
-    private int lineNum = 1;
+    private final ArrayList<Token> tokens = new ArrayList<>();
+    private final NamePool names = new NamePool();
     private int curPos = 0;
 
     private LexerImpl() {
@@ -76,30 +78,35 @@ public class LexerImpl implements SysYLexer {
             }
         }
         if (rawSym != null) {
-            var token = new Token(lineNum, getCol(rawSym), rawSym);
-            if (token.getLexType() != LexType.COMMENT) lexPool.addToken(token);
+            int start = curPos - rawSym.length();
+            int line = LINE_INDEX.lineOf(start);
+            int col = LINE_INDEX.columnOf(start, curPos);
+            var lexType = LexType.ofValue(rawSym);
+            var token = lexType == LexType.IDENFR
+                    ? new Token(line, col, rawSym, lexType, names.intern(rawSym))
+                    : new Token(line, col, rawSym, lexType);
+            if (token.getLexType() != LexType.COMMENT) tokens.add(token);
             return Optional.of(token);
         }
         return Optional.empty();
     }
 
     @Override
-    public ArrayList<Token> getAllTokens() {
+    public void reset() {
         this.curPos = 0;
-        this.lineNum = 1;
-        this.lexPool.clean();
+        this.tokens.clear();
+    }
+
+    @Override
+    public ArrayList<Token> getAllTokens() {
+        reset();
         while (this.next().isPresent()) ;
-        return lexPool.getTokens();
+        return tokens;
     }
 
-    // look back for the first '\n'
-    private int getCol(String rawStr) {
-        int i = (curPos >= SOURCE.length()) ? SOURCE.length() - 1 : curPos;
-        for (; i > 0 && SOURCE.charAt(i) != '\n'; i--) ;
-        if (i == 0) {
-            return curPos - rawStr.length() + 1;
-        }
-        return curPos - i - rawStr.length();
+    @Override
+    public TokenSource tokenize() {
+        return new ListTokenSource(new ArrayList<>(getAllTokens()));
     }
 
     private String readNumber() {
@@ -144,7 +151,6 @@ public class LexerImpl implements SysYLexer {
                 char c = SOURCE.charAt(curPos);
                 if (c == '\n') {
                     curPos++;
-                    lineNum++;
                     return SOURCE.substring(start, curPos);
                 }
             }
@@ -153,9 +159,6 @@ public class LexerImpl implements SysYLexer {
             for (; curPos < SOURCE_LEN; curPos++) {
                 char c1 = SOURCE.charAt(curPos);
                 char c2 = SOURCE.charAt(curPos + 1);
-                if (c1 == '\n') {
-                    lineNum++;
-                }
                 if (c1 == '*' && c2 == '/') {
                     curPos += 2;
                     return SOURCE.substring(start, curPos);
@@ -186,10 +189,6 @@ public class LexerImpl implements SysYLexer {
             return CharaType.SPECIAL_CHAR;
         } else if (RegUtil.linkableString(word)) {
             return CharaType.LIGATURE;
-        } else if (word.isBlank()) {
-            if (word.equals("\n")) {
-                lineNum++;
-            }
         }
         return CharaType.BLANK;
     }
@@ -0,0 +1,187 @@
+package frontEnd.lexer.impl;
+
+import exception.LexErrorException;
+import frontEnd.lexer.LexPool;
+import frontEnd.lexer.SysYLexer;
+import frontEnd.lexer.dataStruct.NamePool;
+import frontEnd.lexer.dataStruct.SourceBuffer;
+import frontEnd.lexer.dataStruct.Token;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Lexes a large source in parallel.
+ * <p>
+ * The source is cut into chunks at safe newlines, i.e. newlines outside block comments and string literals, where
+ * the {@link DfaLexer} is always back in its start state. The cut points are found by one quick pre-scan that only
+ * tracks whether it is in code, a string or a comment. Every chunk is then lexed by its own {@link DfaLexer} on a
+ * {@link ForkJoinPool}, and the chunks are appended in order. Tokens keep their offsets in the whole source, so line
+ * and column numbers need no fixing, and the result is the same as lexing sequentially.
+ * <p>
+ * A source smaller than two chunks is lexed sequentially.
+ */
+public class ParallelLexer implements SysYLexer {
+    private final static int DEFAULT_CHUNK_SIZE = 1 << 22;
+    // Pre-scan states
+    private final static int IN_CODE = 0;
+    private final static int IN_STRING = 1;
+    private final static int IN_LINE_COMMENT = 2;
+    private final static int IN_BLOCK_COMMENT = 3;
+
+    private final SourceBuffer source;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final DfaLexer sequential;
+    private final ByteScanner scanner = ByteScanner.getInstance();
+
+    public ParallelLexer(SourceBuffer source, ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.source = source;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.sequential = new DfaLexer(source, scanner);
+    }
+
+    public ParallelLexer(SourceBuffer source) {
+        this(source, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public ParallelLexer(Path path) throws IOException {
+        this(SourceBuffer.map(path));
+    }
+
+    /**
+     * Find the cut points of the source. Each one is just after a safe newline and at least chunkSize after the one
+     * before it.
+     *
+     * @return The chunk boundaries, beginning with 0 and ending with the length of the source.
+     */
+    static int[] split(SourceBuffer source, int chunkSize) {
+        int len = source.length();
+        int[] cuts = new int[Math.max(2, len / chunkSize + 2)];
+        int count = 1; // cuts[0] = 0
+        int next = chunkSize;
+        int state = IN_CODE;
+        for (int i = 0; i < len; i++) {
+            byte c = source.byteAt(i);
+            switch (state) {
+                case IN_CODE -> {
+                    if (c == '"') {
+                        state = IN_STRING;
+                    } else if (c == '/' && i + 1 < len) {
+                        byte c2 = source.byteAt(i + 1);
+                        if (c2 == '/') {
+                            state = IN_LINE_COMMENT;
+                            i++;
+                        } else if (c2 == '*') {
+                            state = IN_BLOCK_COMMENT;
+                            i++;
+                        }
+                    } else if (c == '\n' && i + 1 >= next && i + 1 < len) {
+                        cuts[count++] = i + 1;
+                        next = i + 1 + chunkSize;
+                    }
+                }
+                case IN_STRING -> {
+                    // a newline in a string is a lex error; it is left to the chunk lexer to report it
+                    if (c == '"' || c == '\n') {
+                        state = IN_CODE;
+                    }
+                }
+                case IN_LINE_COMMENT -> {
+                    if (c == '\n') {
+                        state = IN_CODE;
+                        if (i + 1 >= next && i + 1 < len) {
+                            cuts[count++] = i + 1;
+                            next = i + 1 + chunkSize;
+                        }
+                    }
+                }
+                default -> {
+                    if (c == '*' && i + 1 < len && source.byteAt(i + 1) == '/') {
+                        state = IN_CODE;
+                        i++;
+                    }
+                }
+            }
+        }
+        cuts[count++] = len;
+        return Arrays.copyOf(cuts, count);
+    }
+
+    /**
+     * Lexing one at a time is inherently sequential, so it is delegated to a {@link DfaLexer}.
+     */
+    @Override
+    public Optional<Token> next() {
+        return sequential.next();
+    }
+
+    @Override
+    public void reset() {
+        sequential.reset();
+    }
+
+    @Override
+    public List<Token> getAllTokens() {
+        return tokenize().getTokens();
+    }
+
+    @Override
+    public LexPool tokenize() {
+        if (source.length() < chunkSize * 2) {
+            return sequential.tokenize();
+        }
+        int[] cuts = split(source, chunkSize);
+        List<ChunkTask> chunks = new ArrayList<>(cuts.length - 1);
+        for (int i = 0; i + 1 < cuts.length; i++) {
+            ChunkTask chunk = new ChunkTask(cuts[i], cuts[i + 1]);
+            pool.execute(chunk);
+            chunks.add(chunk);
+        }
+        // Append in source order. The error of the first broken chunk is the one the sequential lexer would throw.
+        LexPool result = new LexPool(source, new NamePool());
+        for (ChunkTask chunk : chunks) {
+            LexPool tokens = chunk.join();
+            if (tokens == null) {
+                throw chunk.error;
+            }
+            result.append(tokens);
+        }
+        return result;
+    }
+
+    private class ChunkTask extends RecursiveTask<LexPool> {
+        private static final long serialVersionUID = 1L;
+        private final int begin;
+        private final int end;
+        /**
+         * Kept rather than thrown, so the merge can rethrow the very same exception in source order.
+         */
+        private LexErrorException error;
+
+        ChunkTask(int begin, int end) {
+            this.begin = begin;
+            this.end = end;
+        }
+
+        @Override
+        protected LexPool compute() {
+            try {
+                return new DfaLexer(source, begin, end, scanner).tokenize();
+            } catch (LexErrorException e) {
+                this.error = e;
+                return null;
+            }
+        }
+    }
+}
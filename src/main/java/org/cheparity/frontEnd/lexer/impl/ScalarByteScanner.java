@@ -0,0 +1,63 @@
+package frontEnd.lexer.impl;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Scans one byte at a time. Used when the Vector API is absent, and for the tails that are shorter than a vector.
+ */
+final class ScalarByteScanner implements ByteScanner {
+    final static ScalarByteScanner INSTANCE = new ScalarByteScanner();
+
+    private ScalarByteScanner() {
+    }
+
+    /**
+     * Bytes in ['!', '}'] except '\\' and '`' start or continue a token; all others are blanks.
+     */
+    static boolean isBlank(byte c) {
+        return c < '!' || c > '}' || c == '\\' || c == '`';
+    }
+
+    static boolean isIdent(byte c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_';
+    }
+
+    @Override
+    public int skipBlanks(ByteBuffer bytes, int from, int end) {
+        int i = from;
+        while (i < end && isBlank(bytes.get(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    @Override
+    public int skipIdent(ByteBuffer bytes, int from, int end) {
+        int i = from;
+        while (i < end && isIdent(bytes.get(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    @Override
+    public int indexOf(ByteBuffer bytes, byte b, int from, int end) {
+        int i = from;
+        while (i < end && bytes.get(i) != b) {
+            i++;
+        }
+        return i;
+    }
+
+    @Override
+    public int indexOfEither(ByteBuffer bytes, byte a, byte b, int from, int end) {
+        int i = from;
+        for (; i < end; i++) {
+            byte c = bytes.get(i);
+            if (c == a || c == b) {
+                break;
+            }
+        }
+        return i;
+    }
+}
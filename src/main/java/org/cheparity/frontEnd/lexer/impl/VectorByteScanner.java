@@ -0,0 +1,98 @@
+package frontEnd.lexer.impl;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Scans 16 or 32 bytes at a time with the Vector API: a whole vector of bytes is classified by a few lane-wise
+ * compares, and the first lane that stops the run is taken from the mask. The bytes left over at the end are scanned
+ * by {@link ScalarByteScanner}.
+ * <p>
+ * Only loaded by {@link ByteScanner#getInstance()} when module jdk.incubator.vector is present.
+ */
+final class VectorByteScanner implements ByteScanner {
+    private final static VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED.length() >= 32
+            ? ByteVector.SPECIES_256 : ByteVector.SPECIES_128;
+    private final static int LANES = SPECIES.length();
+    private final static ScalarByteScanner TAIL = ScalarByteScanner.INSTANCE;
+    /**
+     * Most blank runs and identifiers are only a few bytes long, so that many bytes are checked one by one before a
+     * vector is loaded.
+     */
+    private final static int SHORT_RUN = 8;
+
+    private static ByteVector load(ByteBuffer bytes, int offset) {
+        return ByteVector.fromByteBuffer(SPECIES, bytes, offset, ByteOrder.nativeOrder());
+    }
+
+    @Override
+    public int skipBlanks(ByteBuffer bytes, int from, int end) {
+        int i = TAIL.skipBlanks(bytes, from, Math.min(end, from + SHORT_RUN));
+        if (i < from + SHORT_RUN) {
+            return i;
+        }
+        for (int bound = end - LANES; i <= bound; i += LANES) {
+            ByteVector v = load(bytes, i);
+            // see ScalarByteScanner.isBlank
+            VectorMask<Byte> token = v.compare(VectorOperators.GE, (byte) '!')
+                    .and(v.compare(VectorOperators.LE, (byte) '}'))
+                    .and(v.compare(VectorOperators.NE, (byte) '\\'))
+                    .and(v.compare(VectorOperators.NE, (byte) '`'));
+            if (token.anyTrue()) {
+                return i + token.firstTrue();
+            }
+        }
+        return TAIL.skipBlanks(bytes, i, end);
+    }
+
+    @Override
+    public int skipIdent(ByteBuffer bytes, int from, int end) {
+        int i = TAIL.skipIdent(bytes, from, Math.min(end, from + SHORT_RUN));
+        if (i < from + SHORT_RUN) {
+            return i;
+        }
+        for (int bound = end - LANES; i <= bound; i += LANES) {
+            ByteVector v = load(bytes, i);
+            // 'A' | 0x20 == 'a', so one range covers both cases of letters
+            ByteVector lower = v.or((byte) 0x20);
+            VectorMask<Byte> ident = lower.compare(VectorOperators.GE, (byte) 'a')
+                    .and(lower.compare(VectorOperators.LE, (byte) 'z'))
+                    .or(v.compare(VectorOperators.GE, (byte) '0').and(v.compare(VectorOperators.LE, (byte) '9')))
+                    .or(v.compare(VectorOperators.EQ, (byte) '_'));
+            if (!ident.allTrue()) {
+                return i + ident.not().firstTrue();
+            }
+        }
+        return TAIL.skipIdent(bytes, i, end);
+    }
+
+    @Override
+    public int indexOf(ByteBuffer bytes, byte b, int from, int end) {
+        int i = from;
+        for (int bound = end - LANES; i <= bound; i += LANES) {
+            VectorMask<Byte> found = load(bytes, i).compare(VectorOperators.EQ, b);
+            if (found.anyTrue()) {
+                return i + found.firstTrue();
+            }
+        }
+        return TAIL.indexOf(bytes, b, i, end);
+    }
+
+    @Override
+    public int indexOfEither(ByteBuffer bytes, byte a, byte b, int from, int end) {
+        int i = from;
+        for (int bound = end - LANES; i <= bound; i += LANES) {
+            ByteVector v = load(bytes, i);
+            VectorMask<Byte> found = v.compare(VectorOperators.EQ, a).or(v.compare(VectorOperators.EQ, b));
+            if (found.anyTrue()) {
+                return i + found.firstTrue();
+            }
+        }
+        return TAIL.indexOfEither(bytes, a, b, i, end);
+    }
+}
@@ -0,0 +1,167 @@
+package frontEnd.output;
+
+import exception.GrammarError;
+import frontEnd.lexer.dataStruct.Token;
+import frontEnd.parser.dataStruct.ASTLeaf;
+import frontEnd.parser.dataStruct.ASTNode;
+import frontEnd.parser.dataStruct.GrammarType;
+import frontEnd.parser.dataStruct.TreeCursor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes the answers of the compiler to a file: the tokens, the syntax tree in post-order, and the errors.
+ * <p>
+ * Everything goes through one byte buffer, which is written to the file channel only when it is full or the writer is
+ * closed. Text is written as the platform charset encodes it, as {@link java.io.PrintStream} would, and lines end with
+ * the platform line separator where PrintStream.println was used.
+ */
+public class AnswerWriter implements Closeable {
+    private final static int BUFFER_SIZE = 1 << 16;
+    private final static byte[] LINE_SEPARATOR = System.lineSeparator().getBytes();
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final TreeCursor treeCursor = TreeCursor.postOrder();
+
+    /**
+     * Create the file, or empty it if it exists.
+     */
+    public AnswerWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * LexType rawValue, then '\n'.
+     */
+    public void writeToken(Token token) {
+        write(token.getLexType().toString());
+        write((byte) ' ');
+        write(token.getRawValue());
+        write((byte) '\n');
+    }
+
+    /**
+     * The nodes of the tree in post-order, a leaf as its token and a grammar unit as &lt;Name&gt;. BlockItem, Decl and
+     * BType are left out, but not their children.
+     */
+    public void writeTree(ASTNode root) {
+        TreeCursor cursor = treeCursor.reset(root);
+        for (ASTNode node = cursor.next(); node != null; node = cursor.next()) {
+            GrammarType g = node.getGrammarType();
+            if (g == GrammarType.BLOCK_ITEM || g == GrammarType.DECL || g == GrammarType.B_TYPE) {
+                continue;
+            }
+            if (node instanceof ASTLeaf) {
+                Token token = ((ASTLeaf) node).getToken();
+                write(token.getLexType().toString());
+                write((byte) ' ');
+                write(token.getRawValue());
+            } else {
+                write((byte) '<');
+                write(g.getValue());
+                write((byte) '>');
+            }
+            write(LINE_SEPARATOR);
+        }
+    }
+
+    /**
+     * One line for each error: the line number and the error code.
+     */
+    public void writeErrors(List<GrammarError> errors) {
+        for (GrammarError e : errors) {
+            write(Integer.toString(e.getToken().getLineNum()));
+            write((byte) ' ');
+            write((byte) e.getCode().getValue());
+            write(LINE_SEPARATOR);
+        }
+    }
+
+    /**
+     * Drop everything written, both the buffer and what is already in the file.
+     */
+    public void discard() {
+        buffer.clear();
+        try {
+            channel.truncate(0);
+            channel.position(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void write(byte b) {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put(b);
+    }
+
+    private void write(byte[] bytes) {
+        if (buffer.remaining() < bytes.length) {
+            flush();
+            if (bytes.length > BUFFER_SIZE) {
+                ByteBuffer large = ByteBuffer.wrap(bytes);
+                try {
+                    while (large.hasRemaining()) {
+                        channel.write(large);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return;
+            }
+        }
+        buffer.put(bytes);
+    }
+
+    private void write(String s) {
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            if (s.charAt(i) >= 0x80) {
+                // not ASCII, let the charset encode it
+                write(s.getBytes());
+                return;
+            }
+        }
+        if (buffer.remaining() < length) {
+            flush();
+            if (length > BUFFER_SIZE) {
+                write(s.getBytes());
+                return;
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            buffer.put((byte) s.charAt(i));
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package frontEnd.parser;
 
+import frontEnd.lexer.TokenSource;
 import frontEnd.lexer.dataStruct.Token;
 import frontEnd.parser.dataStruct.ASTNode;
 
@@ -10,5 +11,7 @@ public interface SysYParser {
 
     void setTokens(List<Token> tokens);
 
+    void setTokens(TokenSource tokens);
+
     void parse();
 }
@@ -8,7 +8,15 @@ public final class ASTLeaf extends ASTNode {
     private final Token token;
 
     public ASTLeaf(Token token) throws NoSuchElementException {
-        super(GrammarType.ofTerminal(token.getLexType()).orElseThrow());
+        this(token, GrammarType.ofTerminal(token.getLexType()).orElseThrow());
+    }
+
+    /**
+     * @param type The terminal of the token, when it is already known.
+     */
+    public ASTLeaf(Token token, GrammarType type) {
+        super(type);
+        assert type == GrammarType.terminalOf(token.getLexType());
         this.token = token;
     }
 
@@ -1,6 +1,5 @@
 package frontEnd.parser.dataStruct;
 
-import exception.GrammarError;
 import frontEnd.lexer.dataStruct.Token;
 import frontEnd.parser.ASTNodeElement;
 import frontEnd.parser.dataStruct.utils.LoggerUtil;
@@ -8,18 +7,22 @@ import frontEnd.symbols.SymbolTable;
 import middleEnd.visitor.ASTNodeVisitor;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.TreeSet;
 import java.util.logging.Logger;
 
 public class ASTNode implements ASTNodeElement {
     private final static Logger LOGGER = LoggerUtil.getLogger();
     private final List<ASTNode> children = new ArrayList<>();
     private final GrammarType grammarType;
-    private final ErrorHandler errorHandler = new ErrorHandler();
     private SymbolTable symbolTable = null;
     private ASTNode father = null;
+    /**
+     * The index of this node in the side arrays of a pass over its tree, e.g. {@link frontEnd.symbols.ExpTypes}, or -1.
+     */
+    private int slot = -1;
 
     public ASTNode(GrammarType grammarType) {
         this.grammarType = grammarType;
@@ -40,8 +43,15 @@ public class ASTNode implements ASTNodeElement {
         this.addChild(node);
     }
 
-    public ErrorHandler getErrorHandler() {
-        return this.errorHandler;
+    /**
+     * Replace the children in [from, to) by the nodes.
+     */
+    public void replaceChildren(int from, int to, List<ASTNode> nodes) {
+        List<ASTNode> replaced = this.children.subList(from, to);
+        replaced.forEach(child -> child.setFather(null));
+        replaced.clear();
+        nodes.forEach(node -> node.setFather(this));
+        this.children.addAll(from, nodes);
     }
 
     public ASTNode getFather() {
@@ -65,6 +75,14 @@ public class ASTNode implements ASTNodeElement {
         this.symbolTable = symbolTable;
     }
 
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
     /**
      * Get the child node with the given index.
      * <p>
@@ -86,34 +104,88 @@ public class ASTNode implements ASTNodeElement {
         return grammarType;
     }
 
+    /**
+     * @return A pre-order cursor on the tree of this node. A pass that walks many trees should keep one cursor and
+     * {@link TreeCursor#reset(ASTNode) reset} it instead.
+     */
+    public TreeCursor preOrder() {
+        return TreeCursor.preOrder().reset(this);
+    }
+
+    /**
+     * @return A post-order cursor on the tree of this node.
+     */
+    public TreeCursor postOrder() {
+        return TreeCursor.postOrder().reset(this);
+    }
+
+    /**
+     * @return The leaves of the tree from left to right, this node if it is a leaf. No list is built.
+     */
+    public Iterable<ASTLeaf> leaves() {
+        return () -> new Iterator<>() {
+            private final TreeCursor cursor = preOrder();
+            private ASTLeaf next = advance();
+
+            private ASTLeaf advance() {
+                for (ASTNode node = cursor.next(); node != null; node = cursor.next()) {
+                    if (node instanceof ASTLeaf) {
+                        return (ASTLeaf) node;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public ASTLeaf next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                ASTLeaf leaf = next;
+                next = advance();
+                return leaf;
+            }
+        };
+    }
+
     public String peekTree() {
         StringBuilder sb = new StringBuilder();
-        sb.append(this.getGrammarType().toString());
-        if (!this.getChildren().isEmpty()) {
-            sb.append("(");
-            for (ASTNode child : this.getChildren()) {
-                sb.append(child.peekTree());
+        TreeCursor cursor = preOrder();
+        // the parentheses that are opened and not yet closed, one for each node above the current one
+        int open = 0;
+        for (ASTNode node = cursor.next(); node != null; node = cursor.next()) {
+            for (; open > cursor.getDepth(); open--) {
+                sb.append(")");
+            }
+            sb.append(node.getGrammarType().toString());
+            if (!node.getChildren().isEmpty()) {
+                sb.append("(");
+                open++;
             }
+        }
+        for (; open > 0; open--) {
             sb.append(")");
         }
         return sb.toString();
     }
 
     public ASTLeaf lastLeaf() {
-        if (this.children.isEmpty()) {
-            return (ASTLeaf) this;
+        ASTNode node = this;
+        while (!node.children.isEmpty()) {
+            node = node.children.get(node.children.size() - 1);
         }
-        return this.children.get(this.children.size() - 1).lastLeaf();
+        return (ASTLeaf) node;
     }
 
     public Token lastToken() {
         return lastLeaf().getToken();
     }
 
-    public void addGrammarError(GrammarError e) {
-        this.errorHandler.addError(e);
-    }
-
     /**
      * Find the <strong>first node</strong> with the given type in the tree
      *
@@ -125,86 +197,70 @@ public class ASTNode implements ASTNodeElement {
         if (layer < 0) {
             return Optional.empty();
         }
-        if (this.getGrammarType() == type) {
-            return Optional.of(this);
-        }
-        for (ASTNode child : this.getChildren()) {
-            Optional<ASTNode> res = child.deepDownFind(type, layer - 1);
-            if (res.isPresent()) {
-                return res;
+        TreeCursor cursor = preOrder();
+        for (ASTNode node = cursor.next(); node != null; node = cursor.next()) {
+            if (node.getGrammarType() == type) {
+                return Optional.of(node);
+            }
+            if (cursor.getDepth() == layer) {
+                cursor.skipChildren();
             }
         }
         return Optional.empty();
     }
 
     public Optional<ASTNode> deepUpFind(GrammarType type, int layer) {
-        if (layer < 0) {
-            return Optional.empty();
-        }
-        if (this.getGrammarType() == type) {
-            return Optional.of(this);
-        }
-        if (this.getFather() == null) {
-            return Optional.empty();
+        ASTNode node = this;
+        for (int i = 0; i <= layer && node != null; i++, node = node.getFather()) {
+            if (node.getGrammarType() == type) {
+                return Optional.of(node);
+            }
         }
-        return this.getFather().deepUpFind(type, layer - 1);
+        return Optional.empty();
     }
 
     public Optional<ASTNode> deepUpFind(GrammarType type) {
-        if (this.getGrammarType() == type) {
-            return Optional.of(this);
-        }
-        if (this.getFather() == null) {
-            return Optional.empty();
+        for (ASTNode node = this; node != null; node = node.getFather()) {
+            if (node.getGrammarType() == type) {
+                return Optional.of(node);
+            }
         }
-        return this.getFather().deepUpFind(type);
+        return Optional.empty();
     }
 
     /**
-     * Cannot invoke if the node is a leaf!
+     * Cannot invoke if the node is a leaf! Prefer {@link #leaves()}, which does not build the list.
      *
      * @return the leaves of the tree
      */
     public List<Token> getLeaves() {
         assert this.getGrammarType().isNonTerminal();
         List<Token> tokens = new ArrayList<>();
-        for (ASTNode child : this.getChildren()) {
-            if (child instanceof ASTLeaf) {
-                tokens.add(((ASTLeaf) child).getToken());
-            } else {
-                tokens.addAll(child.getLeaves());
-            }
+        for (ASTLeaf leaf : leaves()) {
+            tokens.add(leaf.getToken());
         }
         return tokens;
     }
 
+    /**
+     * @return The raw values of the leaves, joined. A subtree of one leaf, such as an identifier, gives the raw value
+     * of its token without copying it.
+     */
     public String getRawValue() {
-        if (this.getGrammarType().isTerminal()) {
-            return ((ASTLeaf) this).getToken().getRawValue();
+        ASTNode node = this;
+        while (node.children.size() == 1) {
+            node = node.children.get(0);
+        }
+        if (node instanceof ASTLeaf) {
+            return ((ASTLeaf) node).getToken().getRawValue();
         }
-        List<Token> leaves = getLeaves();
         StringBuilder sb = new StringBuilder();
-        for (Token leaf : leaves) {
-            sb.append(leaf.getRawValue());
+        for (ASTLeaf leaf : node.leaves()) {
+            sb.append(leaf.getToken().getRawValue());
         }
         return sb.toString();
     }
 
-    public TreeSet<GrammarError> getErrors() {
-        TreeSet<GrammarError> errStk = new TreeSet<>();
-        getErrors(errStk);
-        return errStk;
-    }
-
-    private void getErrors(TreeSet<GrammarError> errStk) {
-        ArrayList<GrammarError> errors = this.getErrorHandler().getErrors();
-        errStk.addAll(errors);
-
-        for (var child : children) {
-            child.getErrors(errStk);
-        }
-    }
-
 //    @Override
 //    public String toString() {
 //        return "ASTNode{" + "rawValue=" + getRawValue() +
@@ -0,0 +1,98 @@
+package frontEnd.parser.dataStruct;
+
+import frontEnd.lexer.dataStruct.Token;
+import frontEnd.symbols.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A node of an {@link AstArena}, with the reading methods of {@link ASTNode} under the same names, so that code written
+ * against a tree of {@link ASTNode} reads the same against an arena. Two handles of the same node are equal.
+ */
+public final class ArenaNode {
+    private final AstArena arena;
+    private final int id;
+
+    ArenaNode(AstArena arena, int id) {
+        this.arena = arena;
+        this.id = id;
+    }
+
+    public AstArena getArena() {
+        return arena;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public GrammarType getGrammarType() {
+        return arena.getGrammarType(id);
+    }
+
+    public ArenaNode getFather() {
+        return arena.handle(arena.getParent(id));
+    }
+
+    public List<ArenaNode> getChildren() {
+        List<ArenaNode> children = new ArrayList<>();
+        for (int child = arena.getFirstChild(id); child != AstArena.NONE; child = arena.getNextSibling(child)) {
+            children.add(new ArenaNode(arena, child));
+        }
+        return children;
+    }
+
+    /**
+     * @return The child at the index, or null if there are not so many children.
+     */
+    public ArenaNode getChild(int index) {
+        return arena.handle(arena.getChild(id, index));
+    }
+
+    public SymbolTable getSymbolTable() {
+        return arena.getSymbolTable(id);
+    }
+
+    /**
+     * @return The token of a leaf, or null for a node that is not a leaf.
+     */
+    public Token getToken() {
+        return arena.getToken(id);
+    }
+
+    public Token lastToken() {
+        return arena.lastToken(id);
+    }
+
+    public String getRawValue() {
+        return arena.getRawValue(id);
+    }
+
+    public Optional<ArenaNode> deepDownFind(GrammarType type, int layer) {
+        if (layer < 0) {
+            return Optional.empty();
+        }
+        if (getGrammarType() == type) {
+            return Optional.of(this);
+        }
+        for (int child = arena.getFirstChild(id); child != AstArena.NONE; child = arena.getNextSibling(child)) {
+            Optional<ArenaNode> res = new ArenaNode(arena, child).deepDownFind(type, layer - 1);
+            if (res.isPresent()) {
+                return res;
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ArenaNode && ((ArenaNode) o).arena == arena && ((ArenaNode) o).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+        return id;
+    }
+}
@@ -0,0 +1,298 @@
+package frontEnd.parser.dataStruct;
+
+import frontEnd.lexer.dataStruct.Token;
+import frontEnd.symbols.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An AST kept in primitive arrays, one slot of each array for a node, instead of an object with a list of children
+ * for every node. A node is an int, its index in the arrays; the root is 0 and NONE stands for no node.
+ * <p>
+ * The children of a node are a linked list of first child and next sibling. The leaves are the tokens in the order
+ * they are added, so the leaves of a subtree built in pre-order are a range of them. The symbol tables of the nodes
+ * that have one are kept in a side table, which a node points to by its slot.
+ * <p>
+ * An arena is built once, by {@link #of(ASTNode)} or by {@link #add(GrammarType, int)} and
+ * {@link #addLeaf(Token, int)}, and is only read after that. {@link ArenaNode} is a handle with the methods of
+ * {@link ASTNode}, for code that is written against those.
+ */
+public final class AstArena {
+    public final static int NONE = -1;
+    private final static GrammarType[] GRAMMAR_TYPES = GrammarType.values();
+    private byte[] kinds;
+    private int[] parents;
+    private int[] firstChildren;
+    private int[] lastChildren;
+    private int[] nextSiblings;
+    /**
+     * The index of the token of a leaf, and of the first token of a node that is not a leaf, or NONE if it has none.
+     */
+    private int[] tokenIndices;
+    private int[] slots;
+    private int size = 0;
+    private Token[] tokens;
+    private int tokenCount = 0;
+    private final List<SymbolTable> symbolTables = new ArrayList<>();
+
+    public AstArena() {
+        this(64);
+    }
+
+    /**
+     * @param capacity The expected number of nodes.
+     */
+    public AstArena(int capacity) {
+        capacity = Math.max(capacity, 4);
+        kinds = new byte[capacity];
+        parents = new int[capacity];
+        firstChildren = new int[capacity];
+        lastChildren = new int[capacity];
+        nextSiblings = new int[capacity];
+        tokenIndices = new int[capacity];
+        slots = new int[capacity];
+        tokens = new Token[capacity / 2];
+    }
+
+    /**
+     * Copy a tree of {@link ASTNode}, after which the tree can be dropped.
+     */
+    public static AstArena of(ASTNode root) {
+        AstArena arena = new AstArena();
+        // the nodes of the arena on the path from the root to the current node
+        int[] path = new int[64];
+        TreeCursor cursor = root.preOrder();
+        for (ASTNode node = cursor.next(); node != null; node = cursor.next()) {
+            int depth = cursor.getDepth();
+            int parent = depth == 0 ? NONE : path[depth - 1];
+            int id = node instanceof ASTLeaf
+                    ? arena.addLeaf(((ASTLeaf) node).getToken(), parent)
+                    : arena.add(node.getGrammarType(), parent);
+            if (node.getSymbolTable() != null) {
+                arena.setSymbolTable(id, node.getSymbolTable());
+            }
+            if (depth == path.length) {
+                path = Arrays.copyOf(path, depth * 2);
+            }
+            path[depth] = id;
+        }
+        arena.trim();
+        return arena;
+    }
+
+    /**
+     * Add a node as the last child of the parent.
+     *
+     * @param parent The parent, or NONE for the root.
+     * @return The node.
+     */
+    public int add(GrammarType type, int parent) {
+        if (size == kinds.length) {
+            grow();
+        }
+        int id = size++;
+        kinds[id] = (byte) type.ordinal();
+        parents[id] = parent;
+        firstChildren[id] = NONE;
+        lastChildren[id] = NONE;
+        nextSiblings[id] = NONE;
+        tokenIndices[id] = NONE;
+        slots[id] = NONE;
+        if (parent != NONE) {
+            if (firstChildren[parent] == NONE) {
+                firstChildren[parent] = id;
+            } else {
+                nextSiblings[lastChildren[parent]] = id;
+            }
+            lastChildren[parent] = id;
+        }
+        return id;
+    }
+
+    /**
+     * Add a leaf as the last child of the parent. The leaves must be added in the order of their tokens.
+     *
+     * @return The leaf.
+     */
+    public int addLeaf(Token token, int parent) {
+        int id = add(GrammarType.terminalOf(token.getLexType()), parent);
+        if (tokenCount == tokens.length) {
+            tokens = Arrays.copyOf(tokens, Math.max(tokens.length * 2, 4));
+        }
+        tokenIndices[id] = tokenCount;
+        tokens[tokenCount++] = token;
+        // the nodes above that have no token yet begin with this one
+        for (int node = parent; node != NONE && tokenIndices[node] == NONE; node = parents[node]) {
+            tokenIndices[node] = tokenIndices[id];
+        }
+        return id;
+    }
+
+    public void setSymbolTable(int node, SymbolTable symbolTable) {
+        slots[node] = symbolTables.size();
+        symbolTables.add(symbolTable);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getRoot() {
+        return size == 0 ? NONE : 0;
+    }
+
+    public GrammarType getGrammarType(int node) {
+        return GRAMMAR_TYPES[kinds[node]];
+    }
+
+    public int getParent(int node) {
+        return parents[node];
+    }
+
+    public int getFirstChild(int node) {
+        return firstChildren[node];
+    }
+
+    public int getLastChild(int node) {
+        return lastChildren[node];
+    }
+
+    public int getNextSibling(int node) {
+        return nextSiblings[node];
+    }
+
+    /**
+     * Not the same as {@link GrammarType#isTerminal()}, by which a FormatString is not a terminal and a Number is.
+     */
+    public boolean isLeaf(int node) {
+        return firstChildren[node] == NONE && tokenIndices[node] != NONE;
+    }
+
+    public int getChildCount(int node) {
+        int count = 0;
+        for (int child = firstChildren[node]; child != NONE; child = nextSiblings[child]) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return The child at the index, or NONE if there are not so many children.
+     */
+    public int getChild(int node, int index) {
+        int child = firstChildren[node];
+        for (int i = 0; i < index && child != NONE; i++) {
+            child = nextSiblings[child];
+        }
+        return child;
+    }
+
+    /**
+     * @return The token of a leaf, or null for a node that is not a leaf.
+     */
+    public Token getToken(int node) {
+        return isLeaf(node) ? tokens[tokenIndices[node]] : null;
+    }
+
+    /**
+     * @return The index of the first token of the subtree, or NONE if it has no leaves.
+     */
+    public int getFirstTokenIndex(int node) {
+        return tokenIndices[node];
+    }
+
+    /**
+     * @return The index of the last token of the subtree, or NONE if it has no leaves.
+     */
+    public int getLastTokenIndex(int node) {
+        if (tokenIndices[node] == NONE) {
+            return NONE;
+        }
+        while (!isLeaf(node)) {
+            int child = lastChildren[node];
+            if (tokenIndices[child] == NONE) {
+                // the last child has no leaves, take the last one that has
+                for (int c = firstChildren[node]; c != NONE; c = nextSiblings[c]) {
+                    if (tokenIndices[c] != NONE) {
+                        child = c;
+                    }
+                }
+            }
+            node = child;
+        }
+        return tokenIndices[node];
+    }
+
+    public Token getTokenAt(int tokenIndex) {
+        return tokens[tokenIndex];
+    }
+
+    public Token lastToken(int node) {
+        return tokens[getLastTokenIndex(node)];
+    }
+
+    /**
+     * @return The raw values of the leaves of the subtree, joined.
+     */
+    public String getRawValue(int node) {
+        int first = tokenIndices[node];
+        if (first == NONE) {
+            return "";
+        }
+        int last = getLastTokenIndex(node);
+        if (first == last) {
+            return tokens[first].getRawValue();
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = first; i <= last; i++) {
+            sb.append(tokens[i].getRawValue());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return The symbol table of the node, or null if it has none.
+     */
+    public SymbolTable getSymbolTable(int node) {
+        return slots[node] == NONE ? null : symbolTables.get(slots[node]);
+    }
+
+    /**
+     * @return A handle of the node, or null for NONE.
+     */
+    public ArenaNode handle(int node) {
+        return node == NONE ? null : new ArenaNode(this, node);
+    }
+
+    /**
+     * @return About how many bytes the arrays take, the tokens themselves not included.
+     */
+    public long getMemory() {
+        // a byte and six ints for a node, a reference for a token
+        return (long) kinds.length * (1 + 6 * 4) + (long) tokens.length * 4;
+    }
+
+    /**
+     * Shrink the arrays to the nodes and tokens that are added, when no more will be.
+     */
+    public void trim() {
+        resize(size);
+        tokens = Arrays.copyOf(tokens, tokenCount);
+    }
+
+    private void grow() {
+        resize(Math.max(kinds.length * 2, 4));
+    }
+
+    private void resize(int capacity) {
+        kinds = Arrays.copyOf(kinds, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        lastChildren = Arrays.copyOf(lastChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        tokenIndices = Arrays.copyOf(tokenIndices, capacity);
+        slots = Arrays.copyOf(slots, capacity);
+    }
+}
@@ -3,16 +3,155 @@ package frontEnd.parser.dataStruct;
 import exception.GrammarError;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
+/**
+ * The errors of a compilation, in the order they are found, each with the node it belongs to and the index of the
+ * token the parser was at when it found the error.
+ * <p>
+ * The errors of an alternative that is backtracked are dropped by {@link #rollback(int)}: an error is found after the
+ * token it is about is read, so the ones found in an alternative are all found after the token it began with, and the
+ * ones found before it are not. Errors are only sorted and deduplicated by {@link #getErrors()}; of the errors at the
+ * same token, the one of the outermost node is kept, and the first one of a node.
+ */
 public class ErrorHandler {
-    private final ArrayList<GrammarError> errorPool = new ArrayList<>();
+    private final int limit;
+    private GrammarError[] errorPool = new GrammarError[8];
+    private ASTNode[] nodes = new ASTNode[8];
+    private int[] indices = new int[8];
+    private int size = 0;
+    /**
+     * The errors before it are not rolled back.
+     */
+    private int committed = 0;
+    private List<GrammarError> sorted;
 
-    public void addError(GrammarError e) {
-        errorPool.add(e);
+    public ErrorHandler() {
+        this(Integer.MAX_VALUE);
     }
 
-    public ArrayList<GrammarError> getErrors() {
-        return errorPool;
+    /**
+     * @param limit The number of errors after which the compilation may stop, see {@link #isFull()}.
+     */
+    public ErrorHandler(int limit) {
+        this.limit = limit;
     }
 
+    /**
+     * @param index The index of the current token of the parser.
+     */
+    public void addError(ASTNode node, GrammarError e, int index) {
+        if (size == errorPool.length) {
+            errorPool = Arrays.copyOf(errorPool, size * 2);
+            nodes = Arrays.copyOf(nodes, size * 2);
+            indices = Arrays.copyOf(indices, size * 2);
+        }
+        errorPool[size] = e;
+        nodes[size] = node;
+        indices[size] = index;
+        size++;
+        sorted = null;
+    }
+
+    /**
+     * Add the errors of the other handler again, for the nodes that are taken after they are rolled back.
+     */
+    public void addAll(ErrorHandler other) {
+        for (int i = 0; i < other.size; i++) {
+            addError(other.nodes[i], other.errorPool[i], other.indices[i]);
+        }
+    }
+
+    /**
+     * Drop the errors found after the token at the index, i.e. the ones of a backtracked alternative that began there.
+     */
+    public void rollback(int index) {
+        int to = size;
+        while (to > committed && indices[to - 1] > index) {
+            to--;
+        }
+        if (to < size) {
+            Arrays.fill(errorPool, to, size, null);
+            Arrays.fill(nodes, to, size, null);
+            size = to;
+            sorted = null;
+        }
+    }
+
+    /**
+     * @return The errors found after the token at the index, to be {@link #addAll(ErrorHandler) added} again after
+     * they are rolled back, or null if there are none.
+     */
+    public ErrorHandler since(int index) {
+        int begin = size;
+        while (begin > committed && indices[begin - 1] > index) {
+            begin--;
+        }
+        if (begin == size) {
+            return null;
+        }
+        ErrorHandler errors = new ErrorHandler();
+        for (int i = begin; i < size; i++) {
+            errors.addError(nodes[i], errorPool[i], indices[i]);
+        }
+        return errors;
+    }
+
+    /**
+     * Nothing will be rolled back over the errors that are recorded now.
+     */
+    public void commit() {
+        committed = size;
+    }
+
+    /**
+     * @return True if the errors recorded, the duplicated ones included, have reached the limit.
+     */
+    public boolean isFull() {
+        return size >= limit;
+    }
+
+    /**
+     * @return The errors sorted by their tokens, at most one for a token and at most the limit of them.
+     */
+    public List<GrammarError> getErrors() {
+        if (sorted != null) {
+            return sorted;
+        }
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        // stable, so the errors at the same token stay in the order they are found
+        Arrays.sort(order, (a, b) -> errorPool[a].compareTo(errorPool[b]));
+        List<GrammarError> errors = new ArrayList<>();
+        for (int i = 0; i < size && errors.size() < limit; ) {
+            int kept = order[i];
+            int j = i + 1;
+            for (; j < size && errorPool[order[j]].compareTo(errorPool[kept]) == 0; j++) {
+                if (isAncestor(nodes[order[j]], nodes[kept])) {
+                    kept = order[j];
+                }
+            }
+            errors.add(errorPool[kept]);
+            i = j;
+        }
+        sorted = Collections.unmodifiableList(errors);
+        return sorted;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static boolean isAncestor(ASTNode ancestor, ASTNode node) {
+        for (ASTNode father = node.getFather(); father != null; father = father.getFather()) {
+            if (father == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
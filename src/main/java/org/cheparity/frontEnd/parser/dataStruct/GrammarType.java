@@ -2,8 +2,7 @@ package frontEnd.parser.dataStruct;
 
 import frontEnd.lexer.dataStruct.LexType;
 
-import java.util.Arrays;
-import java.util.Optional;
+import java.util.*;
 
 public enum GrammarType {
     // Terminals
@@ -90,6 +89,67 @@ public enum GrammarType {
     ;
 
 
+    /**
+     * FIRST sets of the grammar units that the parser has to choose between, by the terminals they can begin with.
+     */
+    private final static Map<GrammarType, Set<GrammarType>> FIRST = new EnumMap<>(GrammarType.class);
+    /**
+     * TERMINALS[lexType.ordinal()] is the terminal of the token type, or null if there is none.
+     */
+    private final static GrammarType[] TERMINALS = new GrammarType[LexType.values().length];
+
+    static {
+        for (LexType lexType : LexType.values()) {
+            if (lexType.isPreserved()) {
+                TERMINALS[lexType.ordinal()] = Arrays.stream(GrammarType.values())
+                        .filter(grammar -> grammar.getValue().equals(lexType.getValue())).findFirst().orElse(null);
+            } else if (lexType.isIdent()) {
+                TERMINALS[lexType.ordinal()] = GrammarType.IDENT;
+            } else if (lexType.isIntConst()) {
+                TERMINALS[lexType.ordinal()] = GrammarType.INT_CONST;
+            } else if (lexType.isString()) {
+                TERMINALS[lexType.ordinal()] = GrammarType.FORMAT_STRING;
+            }
+        }
+
+        // UnaryExp -> Ident '(' [FuncRParams] ')' | PrimaryExp | UnaryOp UnaryExp
+        Set<GrammarType> exp = EnumSet.of(IDENT, INT_CONST, LEFT_PAREN, PLUS, MINUS, NOT);
+        for (GrammarType t : List.of(EXP, CONST_EXP, COND, LOR_EXP, LAND_EXP, EQ_EXP, REL_EXP, ADD_EXP, MUL_EXP, UNARY_EXP)) {
+            FIRST.put(t, exp);
+        }
+        FIRST.put(PRIMARY_EXP, EnumSet.of(IDENT, INT_CONST, LEFT_PAREN));
+        FIRST.put(UNARY_OP, EnumSet.of(PLUS, MINUS, NOT));
+        FIRST.put(NUMBER, EnumSet.of(INT_CONST));
+        FIRST.put(LVAL, EnumSet.of(IDENT));
+        FIRST.put(FOR_STMT, EnumSet.of(IDENT));
+        FIRST.put(FUNC_RPARAMS, exp);
+        Set<GrammarType> initVal = EnumSet.copyOf(exp);
+        initVal.add(LEFT_BRACE);
+        FIRST.put(INIT_VAL, initVal);
+        FIRST.put(CONST_INIT_VAL, initVal);
+        FIRST.put(DECL, EnumSet.of(CONST, INT));
+        FIRST.put(CONST_DECL, EnumSet.of(CONST));
+        FIRST.put(VAR_DECL, EnumSet.of(INT));
+        FIRST.put(B_TYPE, EnumSet.of(INT));
+        FIRST.put(FUNC_FPARAMS, EnumSet.of(INT));
+        FIRST.put(FUNC_FPARAM, EnumSet.of(INT));
+        FIRST.put(FUNC_TYPE, EnumSet.of(VOID, INT));
+        FIRST.put(FUNC_DEF, EnumSet.of(VOID, INT));
+        FIRST.put(BLOCK, EnumSet.of(LEFT_BRACE));
+        Set<GrammarType> stmt = EnumSet.copyOf(exp);
+        stmt.addAll(List.of(SEMICOLON, LEFT_BRACE, IF, FOR, BREAK, CONTINUE, RETURN, PRINTF));
+        FIRST.put(STMT, stmt);
+        Set<GrammarType> blockItem = EnumSet.copyOf(stmt);
+        blockItem.addAll(FIRST.get(DECL));
+        FIRST.put(BLOCK_ITEM, blockItem);
+        for (GrammarType t : values()) {
+            // FormatString is a terminal, though it is listed with the grammar units
+            boolean terminal = t.compareTo(COMP_UNIT) < 0 || t == FORMAT_STRING;
+            FIRST.put(t, Collections.unmodifiableSet(terminal ? EnumSet.of(t)
+                    : FIRST.getOrDefault(t, EnumSet.noneOf(GrammarType.class))));
+        }
+    }
+
     private final String value;
 
     GrammarType(String value) {
@@ -97,20 +157,23 @@ public enum GrammarType {
     }
 
     public static Optional<GrammarType> ofTerminal(LexType lexType) {
-        if (lexType.isPreserved()) {
-            return Arrays.stream(GrammarType.values()).filter(grammar -> grammar.getValue().equals(lexType.getValue())).findFirst();
-        }
-        if (lexType.isIdent()) {
-            return Optional.of(GrammarType.IDENT);
-        }
-        if (lexType.isIntConst()) {
-            return Optional.of(GrammarType.INT_CONST);
-        }
-        if (lexType.isString()) {
-            return Optional.of(GrammarType.FORMAT_STRING);
-        }
-//        LoggerUtil.getLogger().severe(lexType + " is not a terminal!");
-        return Optional.empty();
+        return Optional.ofNullable(terminalOf(lexType));
+    }
+
+    /**
+     * Same as {@link #ofTerminal(LexType)}, by a table lookup and without an Optional.
+     *
+     * @return The terminal of the token type, or null if it is not a terminal, i.e. a comment.
+     */
+    public static GrammarType terminalOf(LexType lexType) {
+        return TERMINALS[lexType.ordinal()];
+    }
+
+    /**
+     * @return The terminals this grammar unit can begin with. A terminal only begins with itself.
+     */
+    public Set<GrammarType> first() {
+        return FIRST.get(this);
     }
 
     public String getValue() {
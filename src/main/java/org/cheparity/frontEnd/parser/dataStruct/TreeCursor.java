@@ -0,0 +1,112 @@
+package frontEnd.parser.dataStruct;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Walks a tree of {@link ASTNode} in pre-order or post-order on an explicit stack, so that a deep tree does not
+ * overflow the call stack. The stack is kept after a walk, and a cursor that is {@link #reset(ASTNode) reset} to
+ * another tree walks it without allocating.
+ * <pre>
+ * TreeCursor cursor = TreeCursor.preOrder();
+ * for (ASTNode node = cursor.reset(root).next(); node != null; node = cursor.next()) { ... }
+ * </pre>
+ */
+public final class TreeCursor {
+    private final boolean postOrder;
+    /**
+     * The path from the root to the current node, each with the index of its next child to walk.
+     */
+    private ASTNode[] nodes = new ASTNode[8];
+    private int[] nextChildren = new int[8];
+    private int top = -1;
+    private ASTNode root;
+    private int depth;
+
+    private TreeCursor(boolean postOrder) {
+        this.postOrder = postOrder;
+    }
+
+    /**
+     * @return A cursor that returns a node before its children.
+     */
+    public static TreeCursor preOrder() {
+        return new TreeCursor(false);
+    }
+
+    /**
+     * @return A cursor that returns a node after its children.
+     */
+    public static TreeCursor postOrder() {
+        return new TreeCursor(true);
+    }
+
+    /**
+     * Begin to walk the tree of the root, which is not walked above.
+     */
+    public TreeCursor reset(ASTNode root) {
+        Arrays.fill(nodes, 0, top + 1, null);
+        this.top = -1;
+        this.root = root;
+        return this;
+    }
+
+    /**
+     * @return The next node, or null if the whole tree is walked.
+     */
+    public ASTNode next() {
+        if (root != null) {
+            push(root);
+            root = null;
+            if (!postOrder) {
+                depth = 0;
+                return nodes[0];
+            }
+        }
+        while (top >= 0) {
+            List<ASTNode> children = nodes[top].getChildren();
+            if (nextChildren[top] < children.size()) {
+                ASTNode child = children.get(nextChildren[top]++);
+                push(child);
+                if (!postOrder) {
+                    depth = top;
+                    return child;
+                }
+                continue;
+            }
+            ASTNode node = nodes[top];
+            nodes[top--] = null;
+            if (postOrder) {
+                depth = top + 1;
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The depth of the node last returned, 0 for the root.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Do not walk the children of the node last returned. Only for a pre-order cursor.
+     */
+    public void skipChildren() {
+        assert !postOrder;
+        if (top == depth) {
+            nextChildren[top] = Integer.MAX_VALUE;
+        }
+    }
+
+    private void push(ASTNode node) {
+        if (++top == nodes.length) {
+            nodes = Arrays.copyOf(nodes, top * 2);
+            nextChildren = Arrays.copyOf(nextChildren, top * 2);
+        }
+        nodes[top] = node;
+        nextChildren[top] = 0;
+    }
+}
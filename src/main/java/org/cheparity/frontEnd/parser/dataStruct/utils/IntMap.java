@@ -0,0 +1,134 @@
+package frontEnd.parser.dataStruct.utils;
+
+import java.util.Arrays;
+
+/**
+ * A small open-addressing hash map from non-negative int keys to values, so that looking up by an id neither boxes
+ * the key nor calls equals.
+ *
+ * @param <V> The type of values.
+ */
+public final class IntMap<V> {
+    private final static int EMPTY = -1;
+    private int[] keys;
+    private Object[] values;
+    private int size = 0;
+
+    public IntMap() {
+        this(8);
+    }
+
+    /**
+     * @param capacity The expected number of entries.
+     */
+    public IntMap(int capacity) {
+        int length = Integer.highestOneBit(Math.max(capacity, 4) * 2 - 1) << 1;
+        this.keys = new int[length];
+        this.values = new Object[length];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Put the value if the key is absent.
+     *
+     * @return The value already mapped to the key, or null if the value is put.
+     * @throws IllegalArgumentException If the key is negative.
+     */
+    @SuppressWarnings("unchecked")
+    public V putIfAbsent(int key, V value) {
+        checkKey(key);
+        assert value != null;
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        for (; keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > keys.length) {
+            resize();
+        }
+        return null;
+    }
+
+    /**
+     * Put the value, replacing the one already mapped to the key.
+     *
+     * @return The value that is replaced, or null.
+     * @throws IllegalArgumentException If the key is negative.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        checkKey(key);
+        assert value != null;
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                V pre = (V) values[i];
+                values[i] = value;
+                return pre;
+            }
+        }
+        return putIfAbsent(key, value);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The number of slots, which is what the map takes in memory rather than its size.
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        Arrays.fill(keys, EMPTY);
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == EMPTY) continue;
+            int i = mix(oldKeys[j]) & mask;
+            while (keys[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    /**
+     * A negative key could be taken for an empty slot.
+     */
+    private static void checkKey(int key) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Negative key: " + key);
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,240 @@
+package frontEnd.parser.impl;
+
+import exception.GrammarError;
+import frontEnd.lexer.LexPool;
+import frontEnd.lexer.TokenEdit;
+import frontEnd.lexer.dataStruct.LexType;
+import frontEnd.lexer.dataStruct.SourceBuffer;
+import frontEnd.lexer.dataStruct.TextEdit;
+import frontEnd.lexer.dataStruct.Token;
+import frontEnd.lexer.impl.DfaLexer;
+import frontEnd.parser.dataStruct.ASTLeaf;
+import frontEnd.parser.dataStruct.ASTNode;
+import frontEnd.parser.dataStruct.ErrorHandler;
+import frontEnd.parser.dataStruct.GrammarType;
+import frontEnd.symbols.NameBindings;
+import middleEnd.visitor.semantic.SemanticVisitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Parses a source again after an edit, taking the top-level items (Decl, FuncDef, MainFuncDef) that the edit does not
+ * touch from the parse before it. The AST and the errors are the same as those of {@link RecursiveDescentParser}.
+ * <p>
+ * Each item is parsed by a parser of its own, with errors of its own. The parser only builds the tree, so an item
+ * parses the same wherever the items before it end, as long as it may follow them.
+ * <p>
+ * After an edit, only the window of tokens around it is lexed again, see {@link DfaLexer#relex}. The items that read the
+ * window are parsed again, and so are the items after them, until one would begin where an item began before the
+ * edit. The items from there on are kept: the AST is changed in place, and the leaves of the kept items are moved to
+ * the edited source. What a name refers to may change with any item before it, so the whole AST is checked again by a
+ * {@link SemanticVisitor} when the errors or the bindings are first asked for.
+ */
+public class IncrementalParser {
+    /**
+     * How many tokens after its last one the parser of an item may read, to tell where the item ends.
+     */
+    private final static int LOOKAHEAD = 2;
+    private final ASTNode compUnit = new ASTNode(GrammarType.COMP_UNIT);
+    private final List<Item> items = new ArrayList<>();
+    private LexPool tokens;
+    private ErrorHandler errorHandler;
+    private NameBindings bindings;
+
+    /**
+     * Parse the whole source.
+     *
+     * @param tokens The tokens of the source, see {@link DfaLexer#tokenize()}.
+     */
+    public IncrementalParser(LexPool tokens) {
+        this.tokens = tokens;
+        parseFrom(0, null, items);
+        items.forEach(item -> compUnit.addChild(item.node));
+    }
+
+    public ASTNode getAST() {
+        return compUnit;
+    }
+
+    public LexPool getTokens() {
+        return tokens;
+    }
+
+    /**
+     * @return The errors of the source, sorted by their tokens.
+     */
+    public List<GrammarError> getErrors() {
+        check();
+        return errorHandler.getErrors();
+    }
+
+    /**
+     * @return The symbol of each Ident of the source, see {@link RecursiveDescentParser#getBindings()}.
+     */
+    public NameBindings getBindings() {
+        check();
+        return bindings;
+    }
+
+    /**
+     * Check the AST once after each edit, adding the errors to the syntax errors of the items.
+     */
+    private void check() {
+        if (errorHandler == null) {
+            errorHandler = new ErrorHandler();
+            for (Item item : items) {
+                errorHandler.addAll(item.errors);
+            }
+            // in compatible mode, as the parser checks by default
+            SemanticVisitor visitor = new SemanticVisitor(errorHandler, true);
+            visitor.visit(compUnit);
+            bindings = visitor.getBindings();
+        }
+    }
+
+    /**
+     * Apply the edit to the source, and lex and parse it again.
+     */
+    public void edit(TextEdit edit) {
+        LexPool before = tokens;
+        SourceBuffer source = edit.apply(before.getSource());
+        TokenEdit tokenEdit = new DfaLexer(source, before.getNamePool()).relex(before, edit);
+        this.tokens = tokenEdit.getTokens();
+        this.errorHandler = null;
+        this.bindings = null;
+        int from = tokenEdit.getFrom();
+        // an edit that changes no token still changes where the tokens around it are
+        int removedEnd = Math.max(tokenEdit.getRemovedEnd(), from + 1);
+        int first = 0;
+        while (first < items.size() && items.get(first).end + LOOKAHEAD <= from) {
+            first++;
+        }
+        if (first == items.size() && first > 0 && items.get(first - 1).getType() == GrammarType.MAIN_FUNC_DEF) {
+            // after the MainFuncDef, which ends the CompUnit
+            return;
+        }
+        int last = first;
+        while (last < items.size() && items.get(last).start < removedEnd) {
+            last++;
+        }
+
+        List<Item> parsed = new ArrayList<>();
+        GrammarType previous = first == 0 ? null : items.get(first - 1).getType();
+        // the CompUnit may also have ended before the edit, after the last item
+        int index = first < items.size() ? items.get(first).start : first == 0 ? 0 : items.get(first - 1).end;
+        int next = last;
+        while (true) {
+            while (next < items.size() && tokenEdit.moved(items.get(next).start) < index) {
+                next++;
+            }
+            if (next < items.size() && tokenEdit.moved(items.get(next).start) == index
+                    && follows(previous, items.get(next).getType())) {
+                break;
+            }
+            Item item = tokens.has(index) ? parseItem(index, previous) : null;
+            if (item == null) {
+                next = items.size();
+                break;
+            }
+            parsed.add(item);
+            previous = item.getType();
+            index = item.end;
+            if (previous == GrammarType.MAIN_FUNC_DEF) {
+                next = items.size();
+                break;
+            }
+        }
+
+        int delta = edit.getDelta();
+        for (int i = next; i < items.size(); i++) {
+            Item item = items.get(i);
+            item.start = tokenEdit.moved(item.start);
+            item.end = tokenEdit.moved(item.end);
+            for (ASTLeaf leaf : item.node.leaves()) {
+                Token token = leaf.getToken();
+                token.moveTo(source, token.getOffset() + delta);
+            }
+            parsed.add(item);
+        }
+
+        List<ASTNode> nodes = new ArrayList<>(parsed.size());
+        parsed.forEach(item -> nodes.add(item.node));
+        compUnit.replaceChildren(first, items.size(), nodes);
+        items.subList(first, items.size()).clear();
+        items.addAll(parsed);
+    }
+
+    /**
+     * Parse the items from the index to the end of the CompUnit one after another, as parseCompUnit does.
+     *
+     * @param previous The type of the item before the index, null if there is none.
+     */
+    private void parseFrom(int index, GrammarType previous, List<Item> parsed) {
+        while (previous != GrammarType.MAIN_FUNC_DEF && tokens.has(index)) {
+            Item item = parseItem(index, previous);
+            if (item == null) {
+                break;
+            }
+            parsed.add(item);
+            previous = item.getType();
+            index = item.end;
+        }
+    }
+
+    /**
+     * Parse the item at the index.
+     *
+     * @return The item, or null if the CompUnit ends before the index.
+     */
+    private Item parseItem(int index, GrammarType previous) {
+        RecursiveDescentParser parser = RecursiveDescentParser.worker(tokens, index);
+        Optional<ASTNode> node = parser.parseTopLevelItem(previous);
+        if (node.isEmpty()) {
+            return null;
+        }
+        int end = parser.getIndex();
+        // the parser stays at the last token after it is read
+        if (end == tokens.size() - 1 && node.get().lastToken().getOffset() == tokens.getOffset(end)) {
+            end++;
+        }
+        return new Item(node.get(), index, end, parser.getErrorHandler());
+    }
+
+    /**
+     * @return True if parseCompUnit may take an item of the type after one of the previous type.
+     */
+    private static boolean follows(GrammarType previous, GrammarType type) {
+        if (previous == GrammarType.MAIN_FUNC_DEF) {
+            return false;
+        }
+        return type != GrammarType.DECL || previous == null || previous == GrammarType.DECL;
+    }
+
+    /**
+     * A top-level item and what is needed to keep it when the source is edited.
+     */
+    private static final class Item {
+        final ASTNode node;
+        /**
+         * The index of the first token of the item, and the one after it.
+         */
+        int start, end;
+        /**
+         * The syntax errors of the item.
+         */
+        final ErrorHandler errors;
+
+        Item(ASTNode node, int start, int end, ErrorHandler errors) {
+            this.node = node;
+            this.start = start;
+            this.end = end;
+            this.errors = errors;
+        }
+
+        GrammarType getType() {
+            return node.getGrammarType();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package frontEnd.parser.impl;
+
+import frontEnd.parser.dataStruct.ASTNode;
+import frontEnd.parser.dataStruct.ErrorHandler;
+import frontEnd.parser.dataStruct.GrammarType;
+import frontEnd.parser.dataStruct.utils.IntMap;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The results of the rules that {@link RecursiveDescentParser} memoizes in packrat mode: for each rule, a table from
+ * the token index a parse began at to where it ended and the node it built, or null if it failed.
+ * <p>
+ * Only expression rules are memoized. Their nodes hold no statements, so a result can be taken again by any alternative
+ * that tries the rule at the same index. The errors found in a rule are kept with its result, as the ones of a
+ * backtracked alternative are rolled back.
+ */
+public final class PackratMemo {
+    /**
+     * Bytes of an {@link Entry}: the object header and three fields, with compressed references, padded to 8 bytes.
+     */
+    private final static int ENTRY_BYTES = 32;
+    /**
+     * Bytes of a slot of an {@link IntMap}: an int key and a reference.
+     */
+    private final static int SLOT_BYTES = 8;
+    private final Map<GrammarType, IntMap<Entry>> tables = new EnumMap<>(GrammarType.class);
+    private long lookups = 0;
+    private long hits = 0;
+    private long peakMemory = 0;
+
+    static final class Entry {
+        final int end;
+        final ASTNode node;
+        /**
+         * The errors found in the rule, or null if there are none.
+         */
+        final ErrorHandler errors;
+
+        private Entry(int end, ASTNode node, ErrorHandler errors) {
+            this.end = end;
+            this.node = node;
+            this.errors = errors;
+        }
+    }
+
+    /**
+     * @return The result of the rule at the index if it was parsed, otherwise null.
+     */
+    Entry recall(GrammarType rule, int index) {
+        lookups++;
+        IntMap<Entry> table = tables.get(rule);
+        Entry entry = table == null ? null : table.get(index);
+        if (entry == null) {
+            return null;
+        }
+        hits++;
+        return entry;
+    }
+
+    /**
+     * @param node   The node that is built, or null if the rule failed.
+     * @param errors The errors found in the rule, or null if there are none.
+     */
+    void memorize(GrammarType rule, int start, int end, ASTNode node, ErrorHandler errors) {
+        tables.computeIfAbsent(rule, r -> new IntMap<>()).put(start, new Entry(end, node, errors));
+        peakMemory = Math.max(peakMemory, getMemory());
+    }
+
+    /**
+     * Forget every result, when nothing will backtrack over them.
+     */
+    void clear() {
+        tables.clear();
+    }
+
+    public long getLookups() {
+        return lookups;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public double getHitRate() {
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * @return The number of results that are held now.
+     */
+    public int getEntries() {
+        int entries = 0;
+        for (IntMap<Entry> table : tables.values()) {
+            entries += table.size();
+        }
+        return entries;
+    }
+
+    /**
+     * @return About how many bytes the tables take now.
+     */
+    public long getMemory() {
+        long bytes = 0;
+        for (IntMap<Entry> table : tables.values()) {
+            bytes += (long) table.capacity() * SLOT_BYTES + (long) table.size() * ENTRY_BYTES;
+        }
+        return bytes;
+    }
+
+    /**
+     * @return The most bytes the tables have taken.
+     */
+    public long getPeakMemory() {
+        return peakMemory;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d lookups, %d hits (%.1f%%), %d entries, peak %d bytes",
+                lookups, hits, getHitRate() * 100, getEntries(), peakMemory);
+    }
+}
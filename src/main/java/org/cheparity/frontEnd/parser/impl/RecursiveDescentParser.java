@@ -1,70 +1,207 @@
 package frontEnd.parser.impl;
 
 import exception.*;
+import frontEnd.lexer.ListTokenSource;
+import frontEnd.lexer.TokenSource;
+import frontEnd.lexer.dataStruct.FormatString;
+import frontEnd.lexer.dataStruct.LexType;
 import frontEnd.lexer.dataStruct.Token;
 import frontEnd.parser.SysYParser;
 import frontEnd.parser.dataStruct.ASTLeaf;
 import frontEnd.parser.dataStruct.ASTNode;
+import frontEnd.parser.dataStruct.ErrorHandler;
 import frontEnd.parser.dataStruct.GrammarType;
 import frontEnd.parser.dataStruct.utils.LoggerUtil;
-import frontEnd.parser.dataStruct.utils.ParserUtil;
-import frontEnd.symbols.*;
-
-import java.util.ArrayList;
-import java.util.List;
-import java.util.NoSuchElementException;
-import java.util.Optional;
+import frontEnd.symbols.ExpTypes;
+import frontEnd.symbols.NameBindings;
+import middleEnd.visitor.semantic.SemanticVisitor;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class RecursiveDescentParser implements SysYParser {
     private final static Logger LOGGER = LoggerUtil.getLogger();
     private final static RecursiveDescentParser PARSER_INSTANCE = new RecursiveDescentParser();
-    private List<Token> tokens;
-    private Token nowToken;
+    /**
+     * The levels of binary expressions, from the lowest precedence to the highest.
+     */
+    private final static GrammarType[] BINARY_LEVELS = {GrammarType.LOR_EXP, GrammarType.LAND_EXP,
+            GrammarType.EQ_EXP, GrammarType.REL_EXP, GrammarType.ADD_EXP, GrammarType.MUL_EXP};
+    private final static int LOR_LEVEL = 0, ADD_LEVEL = 4;
+    private final static Set<GrammarType> STMT_KEYWORDS = EnumSet.of(GrammarType.IF, GrammarType.FOR,
+            GrammarType.BREAK, GrammarType.CONTINUE, GrammarType.RETURN, GrammarType.PRINTF);
+    private final static Set<GrammarType> UNARY_OPS = EnumSet.of(GrammarType.PLUS, GrammarType.MINUS, GrammarType.NOT);
+    /**
+     * The index in {@link #BINARY_LEVELS} of a binary operator by the ordinal of its {@link LexType}, or -1 if the token
+     * is not a binary operator.
+     */
+    private final static int[] PRECEDENCE = new int[LexType.values().length];
+
+    static {
+        Arrays.fill(PRECEDENCE, -1);
+        PRECEDENCE[LexType.OR.ordinal()] = 0;
+        PRECEDENCE[LexType.AND.ordinal()] = 1;
+        PRECEDENCE[LexType.EQL.ordinal()] = PRECEDENCE[LexType.NEQ.ordinal()] = 2;
+        PRECEDENCE[LexType.LSS.ordinal()] = PRECEDENCE[LexType.LEQ.ordinal()] = 3;
+        PRECEDENCE[LexType.GRE.ordinal()] = PRECEDENCE[LexType.GEQ.ordinal()] = 3;
+        PRECEDENCE[LexType.PLUS.ordinal()] = PRECEDENCE[LexType.MINU.ordinal()] = 4;
+        PRECEDENCE[LexType.MULT.ordinal()] = PRECEDENCE[LexType.DIV.ordinal()] = PRECEDENCE[LexType.MOD.ordinal()] = 5;
+    }
+
+    private TokenSource tokens;
     private ASTNode AST;
     private int nowIndex = 0;
-    private SymbolTable nowSymbolTable; //it is the BLOCK that contains the symbol table
+    /**
+     * The LVal that {@link #parseStmt()} has read to choose its alternative, from lValAheadIndex to lValAheadEnd. It
+     * is handed over to the Exp that begins with it rather than parsed again.
+     */
+    private ASTNode lValAhead;
+    private int lValAheadIndex, lValAheadEnd;
+    /**
+     * The errors of {@link #lValAhead}, which are rolled back with the alternative that read it, or null if none.
+     */
+    private ErrorHandler lValAheadErrors;
+    /**
+     * Null unless packrat mode is on, see {@link #setMemoize(boolean)}.
+     */
+    private PackratMemo memo;
+    private ErrorHandler errorHandler = new ErrorHandler();
+    /**
+     * True unless the names are checked in the scopes of the language, see {@link #setCompatible(boolean)}.
+     */
+    private boolean compatible = true;
+    /**
+     * The semantic checks of the top-level items, which are added to the same errors as the syntax ones.
+     */
+    private SemanticVisitor semanticVisitor = new SemanticVisitor(errorHandler, compatible);
+    private int errorLimit = Integer.MAX_VALUE;
+    /**
+     * Null unless parallel mode is on, see {@link #setParallel(boolean)}.
+     */
+    private ForkJoinPool pool;
+    /**
+     * The FuncDefs of the last parse that the parallel pass took.
+     */
+    private int parallelFuncDefs = 0;
 
-    private RecursiveDescentParser() {
+    /**
+     * A parser of its own, which shares no state with any other.
+     */
+    public RecursiveDescentParser() {
     }
 
+    /**
+     * @return The parser that the whole process shares.
+     */
     public static RecursiveDescentParser getInstance() {
         return PARSER_INSTANCE;
     }
 
     @Override
     public void setTokens(List<Token> tokens) {
-        if (tokens.isEmpty()) {
+        setTokens(new ListTokenSource(tokens));
+    }
+
+    @Override
+    public void setTokens(TokenSource tokens) {
+        if (!tokens.has(0)) {
             throw new NoSuchElementException("No tokens to parse!");
         }
         this.tokens = tokens;
-        this.nowToken = tokens.get(0);
+        this.nowIndex = 0;
     }
 
-    private void error(ASTNode node, GrammarError e) {
-        //To get which line of `RecursiveDescentParser` throws the error.
-        StackTraceElement ste = new Exception().getStackTrace()[1];
-        String methodName = ste.getMethodName();
-        int lineNumber = ste.getLineNumber();
-        LOGGER.severe(methodName + " throws " + e.getMessage() + " at line " + lineNumber);
-        node.addGrammarError(e);
+    /**
+     * Turn packrat mode on or off. In packrat mode the results of LVal, Exp and UnaryExp are memoized by token index,
+     * so that a backtracked alternative takes the subtrees that are already parsed instead of parsing them again.
+     */
+    public void setMemoize(boolean memoize) {
+        this.memo = memoize ? new PackratMemo() : null;
     }
 
-    private void next() {
-        if (nowIndex < tokens.size() - 1) {
-            nowIndex++;
-            nowToken = tokens.get(nowIndex);
-        }
+    /**
+     * Turn parallel mode on or off. In parallel mode the headers of the FuncDefs are read first, and then their bodies
+     * are parsed at the same time on the common fork-join pool, see {@link #parseFuncDefsInParallel(ASTNode)}. The AST
+     * and the errors are the same as in sequential mode. The tokens are all read before the bodies are parsed.
+     */
+    public void setParallel(boolean parallel) {
+        this.pool = parallel ? ForkJoinPool.commonPool() : null;
     }
 
-    private Optional<Token> preRead(int number) {
-        if (nowIndex + number < tokens.size()) {
-            return Optional.of(tokens.get(nowIndex + number));
-        } else {
-            return Optional.empty();
+    /**
+     * Turn compatible mode on or off. In compatible mode, which is on by default, the names are checked bug for bug in
+     * the scopes that the parser kept when it checked them itself, so that the errors stay what they were. See
+     * {@link SemanticVisitor} for both modes.
+     */
+    public void setCompatible(boolean compatible) {
+        this.compatible = compatible;
+    }
+
+    /**
+     * @return The memo of the last parse in packrat mode, with its counters.
+     */
+    public Optional<PackratMemo> getMemo() {
+        return Optional.ofNullable(memo);
+    }
+
+    /**
+     * @return The number of FuncDefs of the last parse whose bodies were parsed in parallel, 0 unless parallel mode is
+     * on. The sequential parser takes the ones after a FuncDef that the parallel pass could not take.
+     */
+    public int getParallelFuncDefs() {
+        return parallelFuncDefs;
+    }
+
+    /**
+     * Stop parsing after the top-level item with which the errors reach the limit, for runs that only need to know
+     * that there are errors. The errors reported are cut to the limit.
+     */
+    public void setErrorLimit(int errorLimit) {
+        this.errorLimit = errorLimit;
+    }
+
+    /**
+     * @return The errors of the last parse, sorted by their tokens.
+     */
+    public List<GrammarError> getErrors() {
+        return errorHandler.getErrors();
+    }
+
+    /**
+     * @return The symbol of each Ident of the last parse, see {@link NameBindings}. With them, no symbol table is
+     * needed to tell what a name refers to.
+     */
+    public NameBindings getBindings() {
+        return semanticVisitor.getBindings();
+    }
+
+    /**
+     * @return The types of the expressions of the last parse that the checks needed, see {@link ExpTypes}. The rest
+     * are computed by {@link ExpTypes#annotate(ASTNode)}.
+     */
+    public ExpTypes getExpTypes() {
+        return semanticVisitor.getExpTypes();
+    }
+
+    private void error(ASTNode node, GrammarError e) {
+        if (LOGGER.isLoggable(Level.SEVERE)) {
+            //To get which line of `RecursiveDescentParser` throws the error.
+            StackWalker.StackFrame frame = StackWalker.getInstance().walk(s -> s.skip(1).findFirst()).orElseThrow();
+            LOGGER.severe(frame.getMethodName() + " throws " + e.getMessage() + " at line " + frame.getLineNumber());
         }
+        errorHandler.addError(node, e, nowIndex);
     }
 
+    private void next() {
+        if (tokens.has(nowIndex + 1)) {
+            nowIndex++;
+        }
+    }
 
     /**
      * Note that this function can ONLY JUDGE TERMINAL tokens!
@@ -74,10 +211,34 @@ public class RecursiveDescentParser implements SysYParser {
      * @return true if the token type is compatible with `type`.
      */
     private boolean judgePreReadTerminal(int number, GrammarType type) {
-        var token = preRead(number);
-        if (token.isEmpty()) return false;
-        Optional<GrammarType> grammarType = GrammarType.ofTerminal(token.get().getLexType());
-        return grammarType.isPresent() && grammarType.get().equals(type);
+        return preReadTerminal(number) == type;
+    }
+
+    /**
+     * @param number pre-read how many tokens.
+     * @return the terminal of the pre-reading token, or null if there is no such token.
+     */
+    private GrammarType preReadTerminal(int number) {
+        if (!tokens.has(nowIndex + number)) return null;
+        return GrammarType.terminalOf(tokens.getLexType(nowIndex + number));
+    }
+
+    /**
+     * @return the terminal of the current token, to switch on. It is never null, as comments are not parsed.
+     */
+    private GrammarType nowTerminal() {
+        return GrammarType.terminalOf(tokens.getLexType(nowIndex));
+    }
+
+    /**
+     * Choose an alternative by the current token instead of trying it.
+     *
+     * @param type the grammar unit to parse.
+     * @return true if the current token is in FIRST(type), see {@link GrammarType#first()}.
+     */
+    private boolean predict(GrammarType type) {
+        GrammarType grammarType = preReadTerminal(0);
+        return grammarType != null && type.first().contains(grammarType);
     }
 
     @Override
@@ -89,26 +250,46 @@ public class RecursiveDescentParser implements SysYParser {
     }
 
     private ASTNode begin(GrammarType type) {
-        nowToken = tokens.get(nowIndex);
         return new ASTNode(type);
     }
 
     private Optional<ASTNode> failed(int initIndex) {
+        errorHandler.rollback(initIndex);
         nowIndex = initIndex;
-        nowToken = tokens.get(nowIndex);
         return Optional.empty();
     }
 
     private <T extends ASTNode> Optional<T> done(T ast) {
-        nowToken = tokens.get(nowIndex);
         return Optional.of(ast);
     }
 
+    private Optional<ASTNode> memoized(GrammarType rule, Supplier<Optional<ASTNode>> parser) {
+        PackratMemo.Entry entry = memo.recall(rule, nowIndex);
+        if (entry != null) {
+            nowIndex = entry.end;
+            if (entry.errors != null) {
+                errorHandler.addAll(entry.errors);
+            }
+            return Optional.ofNullable(entry.node);
+        }
+        int initIndex = nowIndex;
+        Optional<ASTNode> result = parser.get();
+        ErrorHandler errors = result.isPresent() ? errorHandler.since(initIndex) : null;
+        memo.memorize(rule, initIndex, nowIndex, result.orElse(null), errors);
+        return result;
+    }
+
     @Override
     public void parse() {
-        if (this.tokens.isEmpty()) {
+        if (!this.tokens.has(0)) {
             throw new NoSuchElementException("No tokens to parse! Please call [setTokens]");
         }
+        if (this.memo != null) {
+            this.memo = new PackratMemo();
+        }
+        this.errorHandler = new ErrorHandler(errorLimit);
+        this.semanticVisitor = new SemanticVisitor(errorHandler, compatible);
+        this.parallelFuncDefs = 0;
         Optional<ASTNode> astNode = this.parseCompUnit();
         astNode.ifPresent(node -> this.AST = node);
     }
@@ -116,25 +297,212 @@ public class RecursiveDescentParser implements SysYParser {
 
     /**
      * CompUnit -> {Decl} {FuncDef} MainFuncDef
+     * <p>
+     * Each top-level item is checked by the {@link SemanticVisitor} as soon as it is taken, so that the errors of the
+     * items before it, of the syntax and of the semantics, decide whether the limit is reached.
      *
      * @return Optional<ASTNode> representing the parsed CompUnit
      */
     private Optional<ASTNode> parseCompUnit() {
         ASTNode compUnit = new ASTNode(GrammarType.COMP_UNIT);
         Optional<ASTNode> decl, funcDef;
-        this.nowSymbolTable = new SymbolTable(null, compUnit); //Global symbol table
-        while ((decl = parseDecl()).isPresent()) {
-            compUnit.addChild(decl.get());
+        //nothing backtracks over a whole top-level item, so the tokens before it are released
+        while (!errorHandler.isFull() && (decl = parseDecl()).isPresent()) {
+            take(compUnit, decl.get());
         }
 
-        while ((funcDef = parseFuncDef()).isPresent()) {
-            compUnit.addChild(funcDef.get());
+        if (pool != null && !errorHandler.isFull()) {
+            parseFuncDefsInParallel(compUnit);
+        }
+        //in parallel mode, the FuncDefs that the parallel pass did not take
+        while (!errorHandler.isFull() && (funcDef = parseFuncDef()).isPresent()) {
+            take(compUnit, funcDef.get());
+        }
+        if (!errorHandler.isFull()) {
+            parseMainFuncDef().ifPresentOrElse(mainFuncDef -> take(compUnit, mainFuncDef), this::release);
         }
-        parseMainFuncDef().ifPresent(compUnit::addChild);
         this.AST = compUnit;
         return done(compUnit);
     }
 
+    /**
+     * Add the top-level item to the CompUnit and check it, after the items before it.
+     */
+    private void take(ASTNode compUnit, ASTNode item) {
+        compUnit.addChild(item);
+        semanticVisitor.visit(item);
+        release();
+    }
+
+    private void release() {
+        tokens.release(nowIndex);
+        errorHandler.commit();
+        if (memo != null) {
+            memo.clear();
+        }
+    }
+
+    /**
+     * The FuncDefs of parallel mode, in three passes.
+     * <ol>
+     * <li>Skim: read the header of each FuncDef, and find its body by matching braces.</li>
+     * <li>Parse the bodies at the same time, each with a parser and errors of its own. The syntax of a body does not
+     * depend on what is before it.</li>
+     * <li>Take the FuncDefs in source order with their errors, and check each of them, until the errors reach the
+     * limit.</li>
+     * </ol>
+     * A function is not taken, nor any after it, if the sequential parser would not end it where the skim did. The
+     * sequential parser goes on from there.
+     */
+    private void parseFuncDefsInParallel(ASTNode compUnit) {
+        // the workers share the tokens, so none must be left to pull from a stream while they run
+        tokens.size();
+        List<FuncUnit> units = skimFuncDefs();
+        boolean memoize = memo != null;
+        forkJoin(units, unit -> parseFuncBody(unit, tokens, memoize));
+
+        for (FuncUnit unit : units) {
+            if (!unit.parsed || errorHandler.isFull()) {
+                return;
+            }
+            errorHandler.addAll(unit.headerErrors);
+            errorHandler.addAll(unit.bodyErrors);
+            nowIndex = unit.end;
+            take(compUnit, unit.funcDef);
+            parallelFuncDefs++;
+        }
+    }
+
+    /**
+     * The first pass of {@link #parseFuncDefsInParallel(ASTNode)}. The state of the parser is left as it was.
+     *
+     * @return The FuncDefs from the current token on, each with its header parsed and the range of its body.
+     */
+    private List<FuncUnit> skimFuncDefs() {
+        int initIndex = nowIndex;
+        ErrorHandler initErrorHandler = errorHandler;
+        List<FuncUnit> units = new ArrayList<>();
+        while (true) {
+            FuncUnit unit = new FuncUnit(begin(GrammarType.FUNC_DEF));
+            errorHandler = unit.headerErrors;
+            unit.end = parseFuncHeader(unit.funcDef) ? matchBraces(nowIndex) : -1;
+            if (unit.end < 0) {
+                break;
+            }
+            unit.bodyStart = nowIndex;
+            units.add(unit);
+            nowIndex = unit.end;
+        }
+        nowIndex = initIndex;
+        errorHandler = initErrorHandler;
+        return units;
+    }
+
+    /**
+     * @return The index after the '}' that matches the '{' at the index, or -1 if there is none.
+     */
+    private int matchBraces(int index) {
+        if (!tokens.has(index) || tokens.getLexType(index) != LexType.LBRACE) {
+            return -1;
+        }
+        int depth = 0;
+        for (; tokens.has(index); index++) {
+            LexType lexType = tokens.getLexType(index);
+            if (lexType == LexType.LBRACE) {
+                depth++;
+            } else if (lexType == LexType.RBRACE && --depth == 0) {
+                return index + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parse the body of the function by a new parser.
+     */
+    private static void parseFuncBody(FuncUnit unit, TokenSource tokens, boolean memoize) {
+        RecursiveDescentParser worker = worker(tokens, unit.bodyStart);
+        worker.memo = memoize ? new PackratMemo() : null;
+        unit.parsed = worker.parseFuncBody(unit.funcDef) && worker.nowIndex == unit.end;
+        unit.bodyErrors = worker.errorHandler;
+    }
+
+    /**
+     * A new parser of the tokens from the index on, with errors of its own, for a part of the source that is parsed
+     * apart from the rest. It only builds the tree, the part is checked where it is taken.
+     */
+    static RecursiveDescentParser worker(TokenSource tokens, int index) {
+        RecursiveDescentParser worker = new RecursiveDescentParser();
+        worker.tokens = tokens;
+        worker.nowIndex = index;
+        return worker;
+    }
+
+    /**
+     * The top-level item at the current token that {@link #parseCompUnit()} would take after an item of the type: a
+     * Decl only first or after a Decl, then a FuncDef, then the MainFuncDef.
+     *
+     * @param previous The type of the item before, null for the first item.
+     * @return The item, or empty if the CompUnit ends before the current token.
+     */
+    Optional<ASTNode> parseTopLevelItem(GrammarType previous) {
+        if (previous == GrammarType.MAIN_FUNC_DEF) {
+            return Optional.empty();
+        }
+        Optional<ASTNode> item = Optional.empty();
+        if (previous == null || previous == GrammarType.DECL) {
+            item = parseDecl();
+        }
+        if (item.isEmpty()) {
+            item = parseFuncDef();
+        }
+        if (item.isEmpty()) {
+            item = parseMainFuncDef();
+        }
+        return item;
+    }
+
+    int getIndex() {
+        return nowIndex;
+    }
+
+    /**
+     * @return The errors of the last parse, to which the errors of a later pass over the AST are added, so that all
+     * are sorted and cut to the limit together.
+     */
+    public ErrorHandler getErrorHandler() {
+        return errorHandler;
+    }
+
+    private void forkJoin(List<FuncUnit> units, Consumer<FuncUnit> action) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(units.size());
+        for (FuncUnit unit : units) {
+            tasks.add(pool.submit(() -> action.accept(unit)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    /**
+     * A FuncDef of {@link #parseFuncDefsInParallel(ASTNode)}.
+     */
+    private static final class FuncUnit {
+        final ASTNode funcDef;
+        final ErrorHandler headerErrors = new ErrorHandler();
+        int bodyStart;
+        /**
+         * The index after the body.
+         */
+        int end;
+        boolean parsed;
+        ErrorHandler bodyErrors;
+
+        FuncUnit(ASTNode funcDef) {
+            this.funcDef = funcDef;
+        }
+    }
+
     /**
      * Decl -> ConstDecl | VarDecl
      *
@@ -143,17 +511,22 @@ public class RecursiveDescentParser implements SysYParser {
     private Optional<ASTNode> parseDecl() {
         int initIndex = nowIndex;
         ASTNode decl = begin(GrammarType.DECL);
-        var constDecl = parseConstDecl();
-        if (constDecl.isPresent()) {
-            decl.addChild(constDecl.get());
-            return done(decl);
-        } else {
-            failed(initIndex);
+        Optional<ASTNode> constOrVarDecl = Optional.empty();
+        switch (nowTerminal()) {
+            case CONST:
+                constOrVarDecl = parseConstDecl();
+                break;
+            case INT:
+                // 'int' Ident '(' begins a FuncDef
+                if (!judgePreReadTerminal(2, GrammarType.LEFT_PAREN)) {
+                    constOrVarDecl = parseVarDecl();
+                }
+                break;
+            default:
+                break;
         }
-
-        var varDecl = parseVarDecl();
-        if (varDecl.isPresent()) {
-            decl.addChild(varDecl.get());
+        if (constOrVarDecl.isPresent()) {
+            decl.addChild(constOrVarDecl.get());
             return done(decl);
         }
         return failed(initIndex);
@@ -168,7 +541,6 @@ public class RecursiveDescentParser implements SysYParser {
         int initIndex = nowIndex;
         ASTNode constDecl = begin(GrammarType.CONST_DECL);
         Optional<ASTLeaf> constTk = parseTerminal(GrammarType.CONST);
-        var constDefList = new ArrayList<ASTNode>();
         if (constTk.isPresent()) {
             constDecl.addChild(constTk.get());
         } else {
@@ -186,7 +558,6 @@ public class RecursiveDescentParser implements SysYParser {
         Optional<ASTNode> constDef = parseConstDef();
         if (constDef.isPresent()) {
             constDecl.addChild(constDef.get());
-            constDefList.add(constDef.get());
         } else {
             return failed(initIndex);
         }
@@ -197,7 +568,6 @@ public class RecursiveDescentParser implements SysYParser {
             constDef = parseConstDef();
             if (constDef.isPresent()) {
                 constDecl.addChild(constDef.get());
-                constDefList.add(constDef.get());
             } else {
                 return failed(initIndex);
             }
@@ -205,14 +575,6 @@ public class RecursiveDescentParser implements SysYParser {
 
         Optional<ASTLeaf> semicolon = parseTerminal(GrammarType.SEMICOLON);
         semicolon.ifPresentOrElse(constDecl::addChild, () -> error(constDecl, new SemicolonMissedError(constDecl.lastToken())));
-        for (ASTNode node : constDefList) {
-            // ConstDef -> Ident { '[' ConstExp ']' } '=' ConstInitVal
-            ASTLeaf ident = (ASTLeaf) node.getChildren().get(0);
-            int dim = ParserUtil.getDim4Def(node);
-            var symbol = new ConstSymbol(this.nowSymbolTable, ident.getToken(), dim);
-            this.nowSymbolTable.addSymbol(symbol, constDecl.getErrorHandler());
-        }
-
         return done(constDecl);
     }
 
@@ -289,11 +651,12 @@ public class RecursiveDescentParser implements SysYParser {
         int initIndex = nowIndex;
         ASTNode constInitVal = begin(GrammarType.CONST_INIT_VAL);
 
-        Optional<ASTNode> constExp = parseConstExp();
-        if (constExp.isPresent()) {
-            constInitVal.addChild(constExp.get());
-            return done(constInitVal);
-        } else {
+        if (predict(GrammarType.CONST_EXP)) {
+            Optional<ASTNode> constExp = parseConstExp();
+            if (constExp.isPresent()) {
+                constInitVal.addChild(constExp.get());
+                return done(constInitVal);
+            }
             failed(initIndex);
         }
 
@@ -336,7 +699,6 @@ public class RecursiveDescentParser implements SysYParser {
         int initIndex = nowIndex;
         var varDecl = begin(GrammarType.VAR_DECL);
         Optional<ASTNode> bType = parseBType();
-        var varDefList = new ArrayList<ASTNode>();
         if (bType.isPresent()) {
             varDecl.addChild(bType.get());
         } else {
@@ -346,7 +708,6 @@ public class RecursiveDescentParser implements SysYParser {
         Optional<ASTNode> varDef = parseVarDef();
         if (varDef.isPresent()) {
             varDecl.addChild(varDef.get());
-            varDefList.add(varDef.get());
         } else {
             return failed(initIndex);
         }
@@ -357,7 +718,6 @@ public class RecursiveDescentParser implements SysYParser {
             varDef = parseVarDef();
             if (varDef.isPresent()) {
                 varDecl.addChild(varDef.get());
-                varDefList.add(varDef.get());
             } else {
                 return failed(initIndex);
             }
@@ -369,13 +729,6 @@ public class RecursiveDescentParser implements SysYParser {
             return failed(initIndex);
         }
         varDecl.addChild(semicolon.get());
-        for (ASTNode node : varDefList) {
-            // VarDef -> Ident { '[' ConstExp ']' } ['=' InitVal]
-            ASTLeaf ident = (ASTLeaf) node.getChildren().get(0);
-            int dim = ParserUtil.getDim4Def(node);
-            var symbol = new VarSymbol(this.nowSymbolTable, ident.getToken(), dim);
-            this.nowSymbolTable.addSymbol(symbol, varDecl.getErrorHandler());
-        }
         return done(varDecl);
     }
 
@@ -437,10 +790,11 @@ public class RecursiveDescentParser implements SysYParser {
         Optional<ASTNode> exp, initVal1;
         Optional<ASTLeaf> leftBrace, comma, rightBrace;
         //Exp
-        if ((exp = parseExp()).isPresent()) {
-            initVal.addChild(exp.get());
-            return done(initVal);
-        } else {
+        if (predict(GrammarType.EXP)) {
+            if ((exp = parseExp()).isPresent()) {
+                initVal.addChild(exp.get());
+                return done(initVal);
+            }
             failed(initIndex);
         }
 
@@ -482,56 +836,66 @@ public class RecursiveDescentParser implements SysYParser {
     private Optional<ASTNode> parseFuncDef() {
         int initIndex = nowIndex;
         ASTNode funcDef = begin(GrammarType.FUNC_DEF);
-        FuncSymbol symbol;
-        List<VarSymbol> params = new ArrayList<>();
+        if (!parseFuncHeader(funcDef) || !parseFuncBody(funcDef)) {
+            return failed(initIndex);
+        }
+        return done(funcDef);
+    }
+
+    /**
+     * FuncType Ident '(' [FuncFParams] ')', the FuncDef before its Block.
+     *
+     * @return False if it is not a FuncDef.
+     */
+    private boolean parseFuncHeader(ASTNode funcDef) {
+        // FuncType Ident, and not 'int' 'main'
+        if (!judgePreReadTerminal(1, GrammarType.IDENT)) {
+            return false;
+        }
 
         Optional<ASTNode> funcType = parseFuncType();
         if (funcType.isPresent()) {
             funcDef.addChild(funcType.get());
         } else {
-            return failed(initIndex);
+            return false;
         }
-        GrammarType t = funcType.get().getChildren().get(0).getGrammarType();
-        FuncType type = (t.equals(GrammarType.VOID) ? FuncType.VOID : FuncType.INT);
 
         Optional<ASTLeaf> ident = parseTerminal(GrammarType.IDENT);
         if (ident.isPresent()) {
             funcDef.addChild(ident.get());
-            symbol = new FuncSymbol(this.nowSymbolTable, ident.get().getToken(), type);
-            nowSymbolTable.addSymbol(symbol, funcDef.getErrorHandler());
         } else {
-            return failed(initIndex);
+            return false;
         }
 
         Optional<ASTLeaf> leftParen = parseTerminal(GrammarType.LEFT_PAREN);
         if (leftParen.isPresent()) {
             funcDef.addChild(leftParen.get());
         } else {
-            return failed(initIndex);
+            return false;
         }
 
-        Optional<ASTNode> funcFParams = parseFuncFParams(params);
-        funcFParams.ifPresent(funcDef::addChild);
-        symbol.setFParams(params);
+        if (predict(GrammarType.FUNC_FPARAMS)) {
+            parseFuncFParams().ifPresent(funcDef::addChild);
+        }
 
         Optional<ASTLeaf> rightParen = parseTerminal(GrammarType.RIGHT_PAREN);
         rightParen.ifPresentOrElse(funcDef::addChild, () -> error(funcDef, new RParenMissedError(funcDef.lastToken())));
-        //check return
+        return true;
+    }
+
+    /**
+     * The Block of a FuncDef.
+     *
+     * @return False if there is no Block.
+     */
+    private boolean parseFuncBody(ASTNode funcDef) {
         Optional<ASTNode> block = parseBlock();
         if (block.isPresent()) {
             funcDef.addChild(block.get());
 //            this.nowSymbolTable = new SymbolTable(this.nowSymbolTable, funcDef); //todo 在block里已经有了？为什么这里还要建一遍？
-        } else {
-            return failed(initIndex);
-        }
-        Optional<ASTNode> ret = block.get().deepDownFind(GrammarType.RETURN, 3);
-        if (type == FuncType.INT && ret.isEmpty()) {
-            error(funcDef, new RetStmtMissedError(block.get().lastToken()));
-        } else if (type == FuncType.VOID && ret.isPresent() && ret.get().getFather().getChildren().size() > 2) {
-            error(funcDef, new RedundantRetStmtError(((ASTLeaf) ret.get()).getToken()));
+            return true;
         }
-        symbol.setDim(type);
-        return done(funcDef);
+        return false;
     }
 
     /**
@@ -573,11 +937,6 @@ public class RecursiveDescentParser implements SysYParser {
         } else {
             return failed(initIndex);
         }
-
-        Optional<ASTNode> retNode = block.get().deepDownFind(GrammarType.RETURN, 3);
-        if (retNode.isEmpty()) {
-            error(mainFuncDef, new RetStmtMissedError(block.get().lastToken()));
-        }
         return done(mainFuncDef);
     }
 
@@ -609,11 +968,11 @@ public class RecursiveDescentParser implements SysYParser {
      *
      * @return Optional<ASTNode> representing the parsed FuncFParams
      */
-    private Optional<ASTNode> parseFuncFParams(List<VarSymbol> params) {
+    private Optional<ASTNode> parseFuncFParams() {
         int initIndex = nowIndex;
         ASTNode funcFParams = begin(GrammarType.FUNC_FPARAMS);
 
-        Optional<ASTNode> funcFParam = parseFuncFParam(params);
+        Optional<ASTNode> funcFParam = parseFuncFParam();
         if (funcFParam.isPresent()) {
             funcFParams.addChild(funcFParam.get());
         } else {
@@ -623,7 +982,7 @@ public class RecursiveDescentParser implements SysYParser {
         while ((comma = parseTerminal(GrammarType.COMMA)).isPresent()) {
             funcFParams.addChild(comma.get());
 
-            funcFParam = parseFuncFParam(params);
+            funcFParam = parseFuncFParam();
             if (funcFParam.isPresent()) {
                 funcFParams.addChild(funcFParam.get());
             } else {
@@ -639,7 +998,7 @@ public class RecursiveDescentParser implements SysYParser {
      *
      * @return Optional<ASTNode> representing the parsed FuncFParam
      */
-    private Optional<ASTNode> parseFuncFParam(List<VarSymbol> funcParams) {
+    private Optional<ASTNode> parseFuncFParam() {
         int initIndex = nowIndex;
         var funcFParam = begin(GrammarType.FUNC_FPARAM);
         Optional<ASTNode> bType = parseBType();
@@ -674,10 +1033,6 @@ public class RecursiveDescentParser implements SysYParser {
                         new RBracketMissedError(funcFParam.lastToken())));
             }
         }
-        var dim = ParserUtil.getDim4Def(funcFParam);
-        VarSymbol symbol = new VarSymbol(this.nowSymbolTable, ident.get().getToken(), dim);
-        funcParams.add(symbol);
-        this.nowSymbolTable.addSymbol(symbol, funcFParam.getErrorHandler());
 
         return done(funcFParam);
     }
@@ -690,7 +1045,6 @@ public class RecursiveDescentParser implements SysYParser {
     private Optional<ASTNode> parseBlock() {
         int initIndex = nowIndex;
         var block = begin(GrammarType.BLOCK);
-        this.nowSymbolTable = new SymbolTable(this.nowSymbolTable, block);
         Optional<ASTLeaf> leftBrace = parseTerminal(GrammarType.LEFT_BRACE);
         if (leftBrace.isPresent()) {
             block.addChild(leftBrace.get());
@@ -710,7 +1064,6 @@ public class RecursiveDescentParser implements SysYParser {
         } else {
             return failed(initIndex);
         }
-        this.nowSymbolTable = this.nowSymbolTable.getOuter();
         return done(block);
     }
 
@@ -722,10 +1075,12 @@ public class RecursiveDescentParser implements SysYParser {
     private Optional<ASTNode> parseBlockItem() {
         int initIndex = nowIndex;
         var BlockItem = begin(GrammarType.BLOCK_ITEM);
-        Optional<ASTNode> decl = parseDecl();
-        if (decl.isPresent()) {
-            BlockItem.addChild(decl.get());
-            return done(BlockItem);
+        if (predict(GrammarType.DECL)) {
+            Optional<ASTNode> decl = parseDecl();
+            if (decl.isPresent()) {
+                BlockItem.addChild(decl.get());
+                return done(BlockItem);
+            }
         }
 
         Optional<ASTNode> stmt = parseStmt();
@@ -737,20 +1092,6 @@ public class RecursiveDescentParser implements SysYParser {
         return failed(initIndex);
     }
 
-    private boolean preRead4ParseStmt2JudgeLVal() {
-        int initIndex = nowIndex;
-        if (parseLVal().isEmpty()) {
-            failed(initIndex);
-            return false;
-        }
-        if (parseTerminal(GrammarType.ASSIGN).isEmpty()) {
-            failed(initIndex);
-            return false;
-        }
-        failed(initIndex);
-        return true;
-    }
-
     /**
      * Stmt ->
      * <p>
@@ -780,28 +1121,28 @@ public class RecursiveDescentParser implements SysYParser {
         int initIndex = nowIndex;
         var stmt = begin(GrammarType.STMT);
         Optional<ASTNode> lVal, exp, block;
-        Optional<ASTLeaf> semicolon, leftParen, getintTk, assign, keyword;
+        Optional<ASTLeaf> semicolon, leftParen, getintTk, assign;
 
-        if (preRead4ParseStmt2JudgeLVal()) {
-            //LVal '=' Exp ';' | LVal '=' 'getint''('')'';'
+        boolean expAhead = true;
+        if (judgePreReadTerminal(0, GrammarType.IDENT) && !judgePreReadTerminal(1, GrammarType.LEFT_PAREN)) {
+            //LVal '=' Exp ';' | LVal '=' 'getint''('')'';' | Exp ';' all begin with the LVal, the token after it decides
             lVal = parseLVal();
-            if (lVal.isPresent()) {
+            if (lVal.isEmpty()) {
+                //an Exp would begin with the same LVal
+                expAhead = false;
+            } else if (!judgePreReadTerminal(0, GrammarType.ASSIGN)) {
+                lValAhead = lVal.get();
+                lValAheadIndex = initIndex;
+                lValAheadEnd = nowIndex;
+                lValAheadErrors = errorHandler.since(initIndex);
+                errorHandler.rollback(initIndex);
+                nowIndex = initIndex;
+            } else {
                 stmt.addChild(lVal.get());
 
                 assign = parseTerminal(GrammarType.ASSIGN);
-                if (assign.isPresent()) {
-                    stmt.addChild(assign.get());
-                } else {
-                    return failed(initIndex);
-                }
-                //check if const
-                Optional<ASTNode> ident = lVal.get().deepDownFind(GrammarType.IDENT, 1);
-                assert ident.isPresent();
-                Token token = ((ASTLeaf) ident.get()).getToken();
-                Optional<Symbol> s = nowSymbolTable.lookup(token.getRawValue());
-                if (s.isPresent() && s.get().getType().equals(SymbolType.CONST)) {
-                    error(stmt, new ConstChangedError(token));
-                }
+                assert assign.isPresent();
+                stmt.addChild(assign.get());
 
                 //case 1: exp
                 exp = parseExp();
@@ -828,131 +1169,124 @@ public class RecursiveDescentParser implements SysYParser {
         //the first token is Ident && the second token is LEFT_PAREN
 //        if (judgePreReadTerminal(0, GrammarType.IDENTIFIER) && judgePreReadTerminal(1, GrammarType.LEFT_PAREN)) {
         // [Exp] ';'
-        exp = parseExp();
-        if (exp.isPresent()) {
-            stmt.addChild(exp.get());
-            parseTerminal(GrammarType.SEMICOLON).ifPresentOrElse(stmt::addChild, () -> error(stmt, new SemicolonMissedError(stmt.lastToken())));
-            return done(stmt);
+        if (expAhead && predict(GrammarType.EXP)) {
+            exp = parseExp();
+            lValAhead = null;
+            if (exp.isPresent()) {
+                stmt.addChild(exp.get());
+                parseTerminal(GrammarType.SEMICOLON).ifPresentOrElse(stmt::addChild, () -> error(stmt, new SemicolonMissedError(stmt.lastToken())));
+                return done(stmt);
+            }
         }
 
         //Block
-        block = parseBlock();
-        if (block.isPresent()) {
-            stmt.addChild(block.get());
-            return done(stmt);
+        if (predict(GrammarType.BLOCK)) {
+            block = parseBlock();
+            if (block.isPresent()) {
+                stmt.addChild(block.get());
+                return done(stmt);
+            }
         }
 
         //keyword stmt
-        keyword = parseTerminal(GrammarType.IF, GrammarType.FOR, GrammarType.BREAK, GrammarType.CONTINUE, GrammarType.RETURN, GrammarType.PRINTF);
-        if (keyword.isPresent()) {
-            var grammarType = keyword.get().getGrammarType();
-            // 'if' '(' Cond ')' Stmt [ 'else' Stmt ]
-            if (grammarType.equals(GrammarType.IF)) {
-                stmt.addChild(keyword.get());
-                parseTerminal(GrammarType.LEFT_PAREN).ifPresent(stmt::addChild);
-                parseCond().ifPresent(stmt::addChild);
-                parseTerminal(GrammarType.RIGHT_PAREN).ifPresentOrElse(stmt::addChild, () -> error(stmt,
-                        new RParenMissedError(stmt.lastToken())));
-                parseStmt().ifPresent(stmt::addChild);
-                var elseTk = parseTerminal(GrammarType.ELSE);
-                if (elseTk.isPresent()) {
-                    stmt.addChild(elseTk.get());
-                    var stmt2 = parseStmt();
-                    if (stmt2.isPresent()) {
-                        stmt.addChild(stmt2.get());
-                    } else {
-                        return failed(initIndex);
+        GrammarType grammarType = nowTerminal();
+        if (STMT_KEYWORDS.contains(grammarType)) {
+            ASTLeaf keyword = terminal(grammarType);
+            switch (grammarType) {
+                // 'if' '(' Cond ')' Stmt [ 'else' Stmt ]
+                case IF: {
+                    stmt.addChild(keyword);
+                    parseTerminal(GrammarType.LEFT_PAREN).ifPresent(stmt::addChild);
+                    parseCond().ifPresent(stmt::addChild);
+                    parseTerminal(GrammarType.RIGHT_PAREN).ifPresentOrElse(stmt::addChild, () -> error(stmt,
+                            new RParenMissedError(stmt.lastToken())));
+                    parseStmt().ifPresent(stmt::addChild);
+                    var elseTk = parseTerminal(GrammarType.ELSE);
+                    if (elseTk.isPresent()) {
+                        stmt.addChild(elseTk.get());
+                        var stmt2 = parseStmt();
+                        if (stmt2.isPresent()) {
+                            stmt.addChild(stmt2.get());
+                        } else {
+                            return failed(initIndex);
+                        }
                     }
-                }
-                return done(stmt);
-            }
-            //'for' '(' [ForStmt] ';' [Cond] ';' [ForStmt] ')' Stmt
-            else if (grammarType.equals(GrammarType.FOR)) {
-                stmt.addChild(keyword.get());
-                parseTerminal(GrammarType.LEFT_PAREN).ifPresent(stmt::addChild);
-                parseForStmt().ifPresent(stmt::addChild);
-                parseTerminal(GrammarType.SEMICOLON).ifPresentOrElse(stmt::addChild, () -> error(stmt, new SemicolonMissedError(stmt.lastToken())));
-                parseCond().ifPresent(stmt::addChild);
-                parseTerminal(GrammarType.SEMICOLON).ifPresentOrElse(stmt::addChild, () -> error(stmt, new SemicolonMissedError(stmt.lastToken())));
-                parseForStmt().ifPresent(stmt::addChild);
-                parseTerminal(GrammarType.RIGHT_PAREN).ifPresentOrElse(stmt::addChild, () -> error(stmt,
-                        new RParenMissedError(stmt.lastToken())));
-                parseStmt().ifPresent(stmt::addChild);
-                return done(stmt);
-            }
-            //'break' ';' | 'continue' ';'
-            else if (grammarType.equals(GrammarType.BREAK) || grammarType.equals(GrammarType.CONTINUE)) {
-                stmt.addChild(keyword.get());
-                semicolon = parseTerminal(GrammarType.SEMICOLON);
-                Optional<ASTNode> forStmt = keyword.get().deepUpFind(GrammarType.FOR_STMT);
-                if (forStmt.isEmpty()) error(stmt, new NotLoopStmtError(keyword.get().getToken()));
-                if (semicolon.isPresent()) {
-                    stmt.addChild(semicolon.get());
                     return done(stmt);
-                } else {
-                    error(stmt, new SemicolonMissedError(stmt.lastToken()));
                 }
-            }
-            //'return' [Exp] ';'
-            else if (grammarType.equals(GrammarType.RETURN)) {
-                stmt.addChild(keyword.get());
-                parseExp().ifPresent(stmt::addChild);
-                semicolon = parseTerminal(GrammarType.SEMICOLON);
-                semicolon.ifPresentOrElse(stmt::addChild, () -> error(stmt, new SemicolonMissedError(stmt.lastToken())));
-                return done(stmt);
-            }
-            //'printf''('FormatString{','Exp}')'';'
-            else if (grammarType.equals(GrammarType.PRINTF)) {
-                stmt.addChild(keyword.get());
-                leftParen = parseTerminal(GrammarType.LEFT_PAREN);
-                if (leftParen.isPresent()) {
-                    stmt.addChild(leftParen.get());
-                } else {
-                    return failed(initIndex);
+                //'for' '(' [ForStmt] ';' [Cond] ';' [ForStmt] ')' Stmt
+                case FOR: {
+                    stmt.addChild(keyword);
+                    parseTerminal(GrammarType.LEFT_PAREN).ifPresent(stmt::addChild);
+                    parseForStmt().ifPresent(stmt::addChild);
+                    parseTerminal(GrammarType.SEMICOLON).ifPresentOrElse(stmt::addChild, () -> error(stmt, new SemicolonMissedError(stmt.lastToken())));
+                    parseCond().ifPresent(stmt::addChild);
+                    parseTerminal(GrammarType.SEMICOLON).ifPresentOrElse(stmt::addChild, () -> error(stmt, new SemicolonMissedError(stmt.lastToken())));
+                    parseForStmt().ifPresent(stmt::addChild);
+                    parseTerminal(GrammarType.RIGHT_PAREN).ifPresentOrElse(stmt::addChild, () -> error(stmt,
+                            new RParenMissedError(stmt.lastToken())));
+                    parseStmt().ifPresent(stmt::addChild);
+                    return done(stmt);
                 }
-
-                var formatString = parseTerminal(GrammarType.FORMAT_STRING);
-                if (formatString.isPresent()) {
-                    stmt.addChild(formatString.get());
-                } else {
-                    return failed(initIndex);
+                //'break' ';' | 'continue' ';'
+                case BREAK:
+                case CONTINUE: {
+                    stmt.addChild(keyword);
+                    semicolon = parseTerminal(GrammarType.SEMICOLON);
+                    if (semicolon.isPresent()) {
+                        stmt.addChild(semicolon.get());
+                        return done(stmt);
+                    } else {
+                        error(stmt, new SemicolonMissedError(stmt.lastToken()));
+                    }
+                    break;
                 }
-                //check if formatString only contains '%d'
-                var rawValue = formatString.get().getToken().getRawValue().toCharArray();
-                int fmtCNum = 0;
-                for (int i = 1; i < rawValue.length - 1; i++) {
-                    int ascii = rawValue[i];
-                    if (rawValue[i] == '%') {
-                        if (i + 1 < rawValue.length && rawValue[i + 1] == 'd')
-                            fmtCNum++;
-                        else error(stmt, new InvalidFormatStringError(formatString.get().getToken()));
-                    } else if (rawValue[i] == '\\' && (i + 1 >= rawValue.length || rawValue[i + 1] != 'n')) {
-                        error(stmt, new InvalidFormatStringError(formatString.get().getToken()));
-                    } else if (ascii < 32 || (ascii > 33 && ascii < 40) || ascii > 126) {
-                        //ascii must between 32, 33, 40-126
-                        error(stmt, new InvalidFormatStringError(formatString.get().getToken()));
+                //'return' [Exp] ';'
+                case RETURN: {
+                    stmt.addChild(keyword);
+                    if (predict(GrammarType.EXP)) {
+                        parseExp().ifPresent(stmt::addChild);
                     }
-
+                    semicolon = parseTerminal(GrammarType.SEMICOLON);
+                    semicolon.ifPresentOrElse(stmt::addChild, () -> error(stmt, new SemicolonMissedError(stmt.lastToken())));
+                    return done(stmt);
                 }
+                //'printf''('FormatString{','Exp}')'';'
+                case PRINTF: {
+                    stmt.addChild(keyword);
+                    leftParen = parseTerminal(GrammarType.LEFT_PAREN);
+                    if (leftParen.isPresent()) {
+                        stmt.addChild(leftParen.get());
+                    } else {
+                        return failed(initIndex);
+                    }
 
-                Optional<ASTLeaf> comma;
-                while ((comma = parseTerminal(GrammarType.COMMA)).isPresent()) {
-                    stmt.addChild(comma.get());
-                    var exp1 = parseExp();
-                    if (exp1.isPresent()) {
-                        stmt.addChild(exp1.get());
+                    var formatString = parseTerminal(GrammarType.FORMAT_STRING);
+                    if (formatString.isPresent()) {
+                        stmt.addChild(formatString.get());
                     } else {
                         return failed(initIndex);
                     }
-                    fmtCNum--;
-                }
-                if (fmtCNum != 0) {
-                    error(stmt, new PrintfUnmatchedError(keyword.get().getToken()));
+                    //check if formatString only contains '%d', it is already decoded by the lexer
+                    FormatString format = formatString.get().getToken().getFormatString();
+                    if (!format.isValid()) {
+                        error(stmt, new InvalidFormatStringError(formatString.get().getToken()));
+                    }
+
+                    Optional<ASTLeaf> comma;
+                    while ((comma = parseTerminal(GrammarType.COMMA)).isPresent()) {
+                        stmt.addChild(comma.get());
+                        var exp1 = parseExp();
+                        if (exp1.isPresent()) {
+                            stmt.addChild(exp1.get());
+                        } else {
+                            return failed(initIndex);
+                        }
+                    }
+                    parseTerminal(GrammarType.RIGHT_PAREN).ifPresentOrElse(stmt::addChild, () -> error(stmt,
+                            new RParenMissedError(stmt.lastToken())));
+                    parseTerminal(GrammarType.SEMICOLON).ifPresentOrElse(stmt::addChild, () -> error(stmt, new SemicolonMissedError(stmt.lastToken())));
+                    return done(stmt);
                 }
-                parseTerminal(GrammarType.RIGHT_PAREN).ifPresentOrElse(stmt::addChild, () -> error(stmt,
-                        new RParenMissedError(stmt.lastToken())));
-                parseTerminal(GrammarType.SEMICOLON).ifPresentOrElse(stmt::addChild, () -> error(stmt, new SemicolonMissedError(stmt.lastToken())));
-                return done(stmt);
             }
         } else failed(initIndex);
 
@@ -980,15 +1314,6 @@ public class RecursiveDescentParser implements SysYParser {
             return failed(initIndex);
         }
         forStmt.addChild(lVal.get());
-        //check const
-        Optional<ASTNode> ident = lVal.get().deepDownFind(GrammarType.IDENT, 1);
-        assert ident.isPresent();
-        Optional<Symbol> s = nowSymbolTable.lookup(((ASTLeaf) ident.get()).getToken().getRawValue());
-        if (s.isPresent() && s.get().getType().equals(SymbolType.CONST)) {
-            error(forStmt, new ConstChangedError(((ASTLeaf) ident.get()).getToken()));
-        } else if (s.isEmpty()) {
-            error(forStmt, new UndefinedIdentError(((ASTLeaf) ident.get()).getToken()));
-        }
 
         Optional<ASTLeaf> assign = parseTerminal(GrammarType.ASSIGN);
         if (assign.isPresent()) {
@@ -1011,9 +1336,13 @@ public class RecursiveDescentParser implements SysYParser {
      * @return Optional<ASTNode> representing the parsed Exp
      */
     private Optional<ASTNode> parseExp() {
+        return memo == null ? doParseExp() : memoized(GrammarType.EXP, this::doParseExp);
+    }
+
+    private Optional<ASTNode> doParseExp() {
         int initIndex = nowIndex;
         ASTNode exp = begin(GrammarType.EXP);
-        var addExp = parseAddExp();
+        var addExp = parseBinaryExp(ADD_LEVEL);
         if (addExp.isPresent()) {
             exp.addChild(addExp.get());
             return done(exp);
@@ -1029,7 +1358,7 @@ public class RecursiveDescentParser implements SysYParser {
     private Optional<ASTNode> parseCond() {
         int initIndex = nowIndex;
         ASTNode cond = begin(GrammarType.COND);
-        var LorExp = parseLOrExp();
+        var LorExp = parseBinaryExp(LOR_LEVEL);
         if (LorExp.isPresent()) {
             cond.addChild(LorExp.get());
             return done(cond);
@@ -1043,16 +1372,24 @@ public class RecursiveDescentParser implements SysYParser {
      * @return Optional<ASTNode> representing the parsedLVal
      */
     private Optional<ASTNode> parseLVal() {
+        if (lValAhead != null && lValAheadIndex == nowIndex) {
+            ASTNode LVal = lValAhead;
+            lValAhead = null;
+            nowIndex = lValAheadEnd;
+            if (lValAheadErrors != null) {
+                errorHandler.addAll(lValAheadErrors);
+            }
+            return done(LVal);
+        }
+        return memo == null ? doParseLVal() : memoized(GrammarType.LVAL, this::doParseLVal);
+    }
+
+    private Optional<ASTNode> doParseLVal() {
         int initIndex = nowIndex;
         ASTNode LVal = begin(GrammarType.LVAL);
         Optional<ASTLeaf> ident = parseTerminal(GrammarType.IDENT);
         if (ident.isPresent()) {
             LVal.addChild(ident.get());
-            Optional<Symbol> s = nowSymbolTable.lookup(ident.get().getToken().getRawValue());
-            if (s.isEmpty()) {
-                var e = new UndefinedIdentError(ident.get().getToken());
-                error(LVal, e);
-            }
         } else {
             return failed(initIndex);
         }
@@ -1084,22 +1421,24 @@ public class RecursiveDescentParser implements SysYParser {
         int initIndex = nowIndex;
         ASTNode primaryExp = begin(GrammarType.PRIMARY_EXP);
 
-        var lVal = parseLVal();
-        if (lVal.isPresent()) {
-            primaryExp.addChild(lVal.get());
-            return done(primaryExp);
-        }
-
-        var number = parseNumber();
-        if (number.isPresent()) {
-            primaryExp.addChild(number.get());
-            return done(primaryExp);
+        switch (nowTerminal()) {
+            case IDENT: {
+                var lVal = parseLVal();
+                if (lVal.isEmpty()) return failed(initIndex);
+                primaryExp.addChild(lVal.get());
+                return done(primaryExp);
+            }
+            case INT_CONST: {
+                primaryExp.addChild(parseNumber().orElseThrow());
+                return done(primaryExp);
+            }
+            case LEFT_PAREN:
+                primaryExp.addChild(terminal(GrammarType.LEFT_PAREN));
+                break;
+            default:
+                return failed(initIndex);
         }
 
-        var leftParen = parseTerminal(GrammarType.LEFT_PAREN);
-        if (leftParen.isEmpty()) return failed(initIndex);
-        primaryExp.addChild(leftParen.get());
-
         var exp = parseExp();
         if (exp.isEmpty()) return failed(initIndex);
         primaryExp.addChild(exp.get());
@@ -1134,53 +1473,79 @@ public class RecursiveDescentParser implements SysYParser {
      * @return Optional<ASTNode> representing the parsed UnaryExp
      */
     private Optional<ASTNode> parseUnaryExp() {
+        return memo == null ? doParseUnaryExp() : memoized(GrammarType.UNARY_EXP, this::doParseUnaryExp);
+    }
+
+    private Optional<ASTNode> doParseUnaryExp() {
         int initIndex = nowIndex;
-        var UnaryExp = begin(GrammarType.UNARY_EXP);
+        // UnaryOp UnaryExp: a run of operators is read first, then wrapped around the operand after it
+        List<ASTNode> unaryOps = null;
+        while (UNARY_OPS.contains(nowTerminal())) {
+            int opIndex = nowIndex;
+            ASTNode unaryOp = parseUnaryOp().orElseThrow();
+            if (nowIndex == opIndex) {
+                //the operator is the last token, there is no operand
+                return failed(initIndex);
+            }
+            if (unaryOps == null) {
+                unaryOps = new ArrayList<>();
+            }
+            unaryOps.add(unaryOp);
+        }
 
-        // Ident '(' [FuncRParams] ')'
-        if (preRead(1).isPresent() && preRead(1).get().getRawValue().equals("(")) {
-            var ident = parseTerminal(GrammarType.IDENT);
-            if (ident.isPresent()) {
-                UnaryExp.addChild(ident.get());
-                FuncSymbol funcSym = null;
-                Optional<FuncSymbol> funcSymOpt = nowSymbolTable.lookup4func(ident.get().getToken().getRawValue());
-                //check ident symbol is present.
-                if (funcSymOpt.isEmpty()) {
-                    error(UnaryExp, new UndefinedIdentError(ident.get().getToken()));
-                } else {
-                    // if present, check if params count is matched
-                    funcSym = funcSymOpt.get();
-                }
+        Optional<ASTNode> operand = parseUnaryOperand();
+        if (operand.isEmpty()) {
+            return failed(initIndex);
+        }
+        ASTNode unaryExp = operand.get();
+        for (int i = unaryOps == null ? -1 : unaryOps.size() - 1; i >= 0; i--) {
+            ASTNode outer = begin(GrammarType.UNARY_EXP);
+            outer.addChild(unaryOps.get(i));
+            outer.addChild(unaryExp);
+            unaryExp = outer;
+        }
+        return done(unaryExp);
+    }
+
+    /**
+     * UnaryExp -> Ident '(' [FuncRParams] ')' | PrimaryExp
+     *
+     * @return Optional<ASTNode> representing the parsed UnaryExp without UnaryOp
+     */
+    private Optional<ASTNode> parseUnaryOperand() {
+        int initIndex = nowIndex;
+        var UnaryExp = begin(GrammarType.UNARY_EXP);
 
-                var leftParen = parseTerminal(GrammarType.LEFT_PAREN);
-                if (leftParen.isPresent()) {
-                    UnaryExp.addChild(leftParen.get());
-                    parseFuncRParams(funcSym, ident.get().getToken()).ifPresent(UnaryExp::addChild);
+        switch (nowTerminal()) {
+            case IDENT:
+                // Ident '(' [FuncRParams] ')'
+                if (judgePreReadTerminal(1, GrammarType.LEFT_PAREN)) {
+                    ASTLeaf ident = terminal(GrammarType.IDENT);
+                    UnaryExp.addChild(ident);
+                    UnaryExp.addChild(terminal(GrammarType.LEFT_PAREN));
+                    if (predict(GrammarType.FUNC_RPARAMS)) {
+                        parseFuncRParams().ifPresent(UnaryExp::addChild);
+                    }
                     parseTerminal(GrammarType.RIGHT_PAREN).ifPresentOrElse(UnaryExp::addChild, () -> error(UnaryExp, new RParenMissedError(UnaryExp.lastToken())));
                     return done(UnaryExp);
                 }
-            }
+                return parsePrimaryOperand(UnaryExp, initIndex);
+            case INT_CONST:
+            case LEFT_PAREN:
+                return parsePrimaryOperand(UnaryExp, initIndex);
+            default:
+                return failed(initIndex);
         }
+    }
 
-        //PrimaryExp
+    /**
+     * UnaryExp -> PrimaryExp
+     */
+    private Optional<ASTNode> parsePrimaryOperand(ASTNode UnaryExp, int initIndex) {
         var primaryExp = parsePrimaryExp();
-        if (primaryExp.isPresent()) {
-            UnaryExp.addChild(primaryExp.get());
-            return done(UnaryExp);
-        }
-
-        // UnaryOp UnaryExp
-        var unaryOp = parseUnaryOp();
-        if (unaryOp.isPresent()) {
-            UnaryExp.addChild(unaryOp.get());
-            var unaryExp = parseUnaryExp();
-            if (unaryExp.isPresent()) {
-                UnaryExp.addChild(unaryExp.get());
-                return done(UnaryExp);
-            }
-        }
-
-        return failed(initIndex);
+        if (primaryExp.isEmpty()) return failed(initIndex);
+        UnaryExp.addChild(primaryExp.get());
+        return done(UnaryExp);
     }
 
     /**
@@ -1191,25 +1556,16 @@ public class RecursiveDescentParser implements SysYParser {
     private Optional<ASTNode> parseUnaryOp() {
         int initIndex = nowIndex;
         var unaryOp = begin(GrammarType.UNARY_OP);
-        var plus = parseTerminal(GrammarType.PLUS);
-        if (plus.isPresent()) {
-            unaryOp.addChild(plus.get());
-            return done(unaryOp);
-        }
-
-        var minus = parseTerminal(GrammarType.MINUS);
-        if (minus.isPresent()) {
-            unaryOp.addChild(minus.get());
-            return done(unaryOp);
-        }
-
-        var not = parseTerminal(GrammarType.NOT);
-        if (not.isPresent()) {
-            unaryOp.addChild(not.get());
-            return done(unaryOp);
+        GrammarType op = nowTerminal();
+        switch (op) {
+            case PLUS:
+            case MINUS:
+            case NOT:
+                unaryOp.addChild(terminal(op));
+                return done(unaryOp);
+            default:
+                return failed(initIndex);
         }
-
-        return failed(initIndex);
     }
 
     /**
@@ -1217,14 +1573,12 @@ public class RecursiveDescentParser implements SysYParser {
      *
      * @return Optional representing the parsed FuncRParams
      */
-    private Optional<ASTNode> parseFuncRParams(FuncSymbol funcSymbolOpt, Token funcCallTk) {
+    private Optional<ASTNode> parseFuncRParams() {
         int initIndex = nowIndex;
         var funcRParams = begin(GrammarType.FUNC_RPARAMS);
 
-        List<ASTNode> nodeList = new ArrayList<>();
         var exp = parseExp();
         if (exp.isEmpty()) return failed(initIndex);
-        nodeList.add(exp.get());
         funcRParams.addChild(exp.get());
         Optional<ASTLeaf> comma;
         while ((comma = parseTerminal(GrammarType.COMMA)).isPresent()) {
@@ -1232,230 +1586,61 @@ public class RecursiveDescentParser implements SysYParser {
             exp = parseExp();
             if (exp.isPresent()) {
                 funcRParams.addChild(exp.get());
-                nodeList.add(exp.get());
             } else {
                 return failed(initIndex);
             }
         }
-        if (funcSymbolOpt == null) return done(funcRParams);
-        int expectParamsNum = funcSymbolOpt.getParamCount();
-        List<VarSymbol> expectParams = funcSymbolOpt.getParams();
-        int actualParamsNum = nodeList.size();
-        if (expectParamsNum != actualParamsNum) {
-            error(funcRParams, new FuncParamCntNotMatchedError(expectParamsNum, actualParamsNum, funcCallTk));
-        } else {
-            for (int i = 0; i < expectParamsNum; i++) {
-                var e = nodeList.get(i);
-                var actualDim = ParserUtil.getExpDim(e, nowSymbolTable);
-                var expectDim = expectParams.get(i).getDim();
-                if (actualDim == expectDim) break;
-                error(funcRParams, new FuncParamTypeNotMatchedError("dim " + expectDim, "dim " + actualDim, funcCallTk));
-            }
-        }
         return done(funcRParams);
     }
 
     /**
-     * MulExp -> UnaryExp | MulExp ('*' | '/' | '%') UnaryExp
+     * LOrExp -> LAndExp | LOrExp '||' LAndExp
      * <p>
-     * MulExp -> UnaryExp { ('*' | '/' | '%') UnaryExp }
-     *
-     * @return Optional<ASTNode> representing the parsed MulExp
-     */
-    private Optional<ASTNode> parseMulExp() {
-        int initIndex = nowIndex;
-        var mulExp = begin(GrammarType.MUL_EXP);
-
-        var unaryExp = parseUnaryExp();
-        if (unaryExp.isPresent()) {
-            mulExp.addChild(unaryExp.get());
-        } else {
-            return failed(initIndex);
-        }
-
-        Optional<ASTLeaf> operator;
-        while ((operator = parseTerminal(GrammarType.MULTIPLY, GrammarType.DIVIDE, GrammarType.MOD)).isPresent()) {
-            ASTNode mul = new ASTNode(GrammarType.MUL_EXP);
-            mul.addChild(unaryExp.get());
-            mulExp.replaceLastChild(mul);
-
-            mulExp.addChild(operator.get());
-            unaryExp = parseUnaryExp();
-            if (unaryExp.isPresent()) {
-                mulExp.addChild(unaryExp.get());
-            } else {
-                return failed(initIndex);
-            }
-        }
-        return done(mulExp);
-    }
-
-    /**
-     * AddExp -> MulExp | AddExp ('+' | '−') MulExp
+     * LAndExp -> EqExp | LAndExp '&&' EqExp
+     * <p>
+     * EqExp -> RelExp | EqExp ('==' | '!=') RelExp
      * <p>
-     * AddExp -> MulExp {('+'|'-') MulExp}
-     *
-     * @return Optional<ASTNode> representing the parsed AddExp
-     */
-    private Optional<ASTNode> parseAddExp() {
-        int initIndex = nowIndex;
-        var addExp = begin(GrammarType.ADD_EXP);
-
-        var mulExp = parseMulExp();
-        if (mulExp.isPresent()) {
-            addExp.addChild(mulExp.get());
-        } else {
-            return failed(initIndex);
-        }
-
-        Optional<ASTLeaf> operator;
-        while ((operator = parseTerminal(GrammarType.PLUS, GrammarType.MINUS)).isPresent()) {
-            ASTNode add = new ASTNode(GrammarType.ADD_EXP);
-            add.addChild(mulExp.get());
-            addExp.replaceLastChild(add);
-
-            addExp.addChild(operator.get());
-            mulExp = parseMulExp();
-            if (mulExp.isPresent()) {
-                addExp.addChild(mulExp.get());
-            } else {
-                return failed(initIndex);
-            }
-        }
-
-        return done(addExp);
-    }
-
-    /**
      * RelExp -> AddExp | RelExp ('<' | '>' | '<=' | '>=') AddExp
      * <p>
-     * RelExp -> AddExp { ('<' | '>' | '<=' | '>=') AddExp }
-     *
-     * @return Optional representing the parsed RelExp
-     */
-    private Optional<ASTNode> parseRelExp() {
-        int initIndex = nowIndex;
-        var relExp = begin(GrammarType.REL_EXP);
-
-        var addExp = parseAddExp();
-        if (addExp.isPresent()) {
-            relExp.addChild(addExp.get());
-        } else {
-            return failed(initIndex);
-        }
-
-        Optional<ASTLeaf> operator;
-        while ((operator = parseTerminal(GrammarType.LESS_THAN, GrammarType.LESS_THAN_EQUAL, GrammarType.GREATER_THAN, GrammarType.GREATER_THAN_EQUAL)).isPresent()) {
-            ASTNode rel = new ASTNode(GrammarType.REL_EXP);
-            rel.addChild(addExp.get());
-
-            relExp.replaceLastChild(rel);
-            relExp.addChild(operator.get());
-            addExp = parseAddExp();
-            if (addExp.isPresent()) {
-                relExp.addChild(addExp.get());
-            } else {
-                return failed(initIndex);
-            }
-        }
-        return done(relExp);
-    }
-
-    /**
-     * EqExp -> RelExp | EqExp ('==' | '!=') RelExp
+     * AddExp -> MulExp | AddExp ('+' | '−') MulExp
+     * <p>
+     * MulExp -> UnaryExp | MulExp ('*' | '/' | '%') UnaryExp
      * <p>
-     * EqExp -> RelExp { ('==' | '!=') RelExp }
+     * All the levels are parsed in one loop by precedence climbing, with the open node of each level on a stack. The
+     * tree has the shape of the left-recursive rules: every operand of a level but the last is wrapped in a node of
+     * that level, e.g. a * b * c is MulExp[MulExp[a], '*', MulExp[b], '*', c].
      *
-     * @return Optional representing the parsed EqExp
+     * @param top the index in {@link #BINARY_LEVELS} of the level to parse, the operators below it end the expression.
+     * @return Optional<ASTNode> representing the parsed expression of that level
      */
-    private Optional<ASTNode> parseEqExp() {
+    private Optional<ASTNode> parseBinaryExp(int top) {
         int initIndex = nowIndex;
-        var eqExp = begin(GrammarType.EQ_EXP);
-        var relExp = parseRelExp();
-        if (relExp.isPresent()) {
-            eqExp.addChild(relExp.get());
-        } else {
-            return failed(initIndex);
-        }
-
-        Optional<ASTLeaf> operator;
-        while ((operator = parseTerminal(GrammarType.EQUAL, GrammarType.NOT_EQUAL)).isPresent()) {
-            ASTNode eq = new ASTNode(GrammarType.EQ_EXP);
-            eq.addChild(relExp.get());
-            eqExp.replaceLastChild(eq);
-
-            eqExp.addChild(operator.get());
-            relExp = parseRelExp();
-            if (relExp.isPresent()) {
-                eqExp.addChild(relExp.get());
-            } else {
+        ASTNode[] open = new ASTNode[BINARY_LEVELS.length];
+        while (true) {
+            Optional<ASTNode> operand = parseUnaryExp();
+            if (operand.isEmpty()) {
                 return failed(initIndex);
             }
+            ASTNode pending = operand.get();
+            int level = Math.max(PRECEDENCE[tokens.getLexType(nowIndex).ordinal()], top - 1);
+            //the operand is complete in every level above the operator
+            for (int l = open.length - 1; l > level; l--) {
+                ASTNode node = open[l] == null ? begin(BINARY_LEVELS[l]) : open[l];
+                open[l] = null;
+                node.addChild(pending);
+                pending = node;
+            }
+            if (level < top) {
+                return done(pending);
+            }
+            if (open[level] == null) {
+                open[level] = begin(BINARY_LEVELS[level]);
+            }
+            ASTNode wrapped = begin(BINARY_LEVELS[level]);
+            wrapped.addChild(pending);
+            open[level].addChild(wrapped);
+            open[level].addChild(terminal(GrammarType.terminalOf(tokens.getLexType(nowIndex))));
         }
-        return done(eqExp);
-    }
-
-    /**
-     * LAndExp -> EqExp | LAndExp '&&' EqExp
-     * <p>
-     * LAndExp -> EqExp { '&&' EqExp}
-     *
-     * @return Optional<ASTNode> representing the parsed LAndExp
-     */
-    private Optional<ASTNode> parseLAndExp() {
-        int initIndex = nowIndex;
-        var lAndExp = begin(GrammarType.LAND_EXP);
-
-        Optional<ASTNode> EqExp;
-        EqExp = parseEqExp();
-        if (EqExp.isPresent()) lAndExp.addChild(EqExp.get());
-        else return failed(initIndex);
-
-        Optional<ASTLeaf> logicalAnd;
-        while ((logicalAnd = parseTerminal(GrammarType.LOGICAL_AND)).isPresent()) {
-            ASTNode lAnd = new ASTNode(GrammarType.LAND_EXP);
-            lAnd.addChild(EqExp.get());
-            lAndExp.replaceLastChild(lAnd);
-
-            lAndExp.addChild(logicalAnd.get());
-            EqExp = parseEqExp();
-            if (EqExp.isEmpty()) return failed(initIndex);
-            lAndExp.addChild(EqExp.get());
-        }
-        return done(lAndExp);
-    }
-
-    /**
-     * LOrExp -> LAndExp | LOrExp '||' LAndExp
-     * <p>
-     * LOrExp -> LAndExp { '||' LAndExp }
-     *
-     * @return Optional<ASTNode> representing the parsed LOrExp
-     */
-    private Optional<ASTNode> parseLOrExp() {
-        int initIndex = nowIndex;
-        var LOrExp = begin(GrammarType.LOR_EXP);
-
-        Optional<ASTNode> lAndExp;
-        lAndExp = parseLAndExp();
-        if (lAndExp.isPresent()) {
-            LOrExp.addChild(lAndExp.get());
-        } else {
-            return failed(initIndex);
-        }
-
-        Optional<ASTLeaf> logicalOr;
-        while ((logicalOr = parseTerminal(GrammarType.LOGICAL_OR)).isPresent()) {
-            ASTNode lOr = new ASTNode(GrammarType.LOR_EXP);
-            lOr.addChild(lAndExp.get());
-            LOrExp.replaceLastChild(lOr);
-
-            LOrExp.addChild(logicalOr.get());
-            lAndExp = parseLAndExp();
-            if (lAndExp.isEmpty()) return failed(initIndex);
-            LOrExp.addChild(lAndExp.get());
-        }
-        return done(LOrExp);
     }
 
     /**
@@ -1466,7 +1651,7 @@ public class RecursiveDescentParser implements SysYParser {
     private Optional<ASTNode> parseConstExp() {
         int initIndex = nowIndex;
         var constExp = begin(GrammarType.CONST_EXP);
-        var addExp = parseAddExp();
+        var addExp = parseBinaryExp(ADD_LEVEL);
         if (addExp.isPresent()) {
             constExp.addChild(addExp.get());
             return done(constExp);
@@ -1477,25 +1662,27 @@ public class RecursiveDescentParser implements SysYParser {
 
     /**
      * Parse the terminals. Include `keyword, punctuation, operator, string, number`.
+     * <p>
+     * A leaf is only made when the token matches.
      *
      * @return Optional ASTLeaf that been parsed.
      */
-    private Optional<ASTLeaf> parseTerminal(GrammarType... type) {
-        ASTLeaf astLeaf;
-        try {
-            astLeaf = new ASTLeaf(nowToken);
-        } catch (NoSuchElementException e) {
+    private Optional<ASTLeaf> parseTerminal(GrammarType type) {
+        if (nowTerminal() != type) {
             return Optional.empty();
         }
+        return done(terminal(type));
+    }
 
-        for (var t : type) {
-            if (astLeaf.getGrammarType().equals(t)) {
-                next();
-                return done(astLeaf);
-            }
-        }
-
-        return Optional.empty();
+    /**
+     * Make the leaf of the current token and move on.
+     *
+     * @param type the terminal of the current token, which the caller has already checked.
+     */
+    private ASTLeaf terminal(GrammarType type) {
+        ASTLeaf astLeaf = new ASTLeaf(tokens.getToken(nowIndex), type);
+        next();
+        return astLeaf;
     }
 
 }
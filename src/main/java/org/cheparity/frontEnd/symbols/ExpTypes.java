@@ -0,0 +1,187 @@
+package frontEnd.symbols;
+
+import frontEnd.parser.dataStruct.ASTLeaf;
+import frontEnd.parser.dataStruct.ASTNode;
+import frontEnd.parser.dataStruct.GrammarType;
+import frontEnd.parser.dataStruct.TreeCursor;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The type of each expression node of an AST, computed once, from the types of its children, and kept in a side array
+ * by the {@link ASTNode#getSlot() slot} of the node.
+ * <p>
+ * A type is an int: the kind of the value (int, void, or undefined for a name that refers to no variable or function),
+ * whether it is a constant, and its dimension. A binary expression takes the kind and dimension of its first operand.
+ * The names are read from the {@link NameBindings} of the AST, so the types are those that the checks of the parser
+ * saw.
+ */
+public final class ExpTypes {
+    public final static int INT = 0, VOID = 1, UNDEFINED = 2;
+    private final static int KIND_MASK = 0b11, CONST_BIT = 0b100, DIM_SHIFT = 3;
+    private final static Set<GrammarType> EXPRESSIONS = EnumSet.of(GrammarType.EXP, GrammarType.CONST_EXP,
+            GrammarType.COND, GrammarType.LOR_EXP, GrammarType.LAND_EXP, GrammarType.EQ_EXP, GrammarType.REL_EXP,
+            GrammarType.ADD_EXP, GrammarType.MUL_EXP, GrammarType.UNARY_EXP, GrammarType.PRIMARY_EXP,
+            GrammarType.LVAL, GrammarType.NUMBER);
+    private final NameBindings bindings;
+    private int[] types = new int[64];
+    /**
+     * The node of each slot, as a node may also have a slot in the arrays of another pass.
+     */
+    private ASTNode[] nodes = new ASTNode[64];
+    private int size = 0;
+    /**
+     * The nodes whose types are being computed, each above the ones it waits for.
+     */
+    private ASTNode[] stack = new ASTNode[16];
+
+    public ExpTypes(NameBindings bindings) {
+        this.bindings = bindings;
+    }
+
+    public static int of(int kind, int dim, boolean constant) {
+        return kind | (constant ? CONST_BIT : 0) | dim << DIM_SHIFT;
+    }
+
+    public static int getKind(int type) {
+        return type & KIND_MASK;
+    }
+
+    /**
+     * @return The dimension of an int, and -1 for void or undefined.
+     */
+    public static int getDim(int type) {
+        return getKind(type) == INT ? type >> DIM_SHIFT : -1;
+    }
+
+    public static boolean isConst(int type) {
+        return (type & CONST_BIT) != 0;
+    }
+
+    public static boolean isExpression(ASTNode node) {
+        return EXPRESSIONS.contains(node.getGrammarType());
+    }
+
+    /**
+     * Compute the types of all the expressions of the tree, the ones already computed excepted.
+     */
+    public void annotate(ASTNode root) {
+        TreeCursor cursor = root.preOrder();
+        for (ASTNode node = cursor.next(); node != null; node = cursor.next()) {
+            if (isExpression(node)) {
+                typeOf(node);
+                cursor.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * @return The type of the expression, which is computed with the types of its subexpressions if it is not yet.
+     */
+    public int typeOf(ASTNode exp) {
+        assert isExpression(exp);
+        if (isTyped(exp)) {
+            return types[exp.getSlot()];
+        }
+        int top = 0;
+        stack[top++] = exp;
+        while (top > 0) {
+            ASTNode node = stack[top - 1];
+            int waiting = top;
+            for (ASTNode child : node.getChildren()) {
+                if (isExpression(child) && !isTyped(child)) {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                    }
+                    stack[top++] = child;
+                }
+            }
+            if (top == waiting) {
+                put(node, compute(node));
+                stack[--top] = null;
+            }
+        }
+        return types[exp.getSlot()];
+    }
+
+    private boolean isTyped(ASTNode node) {
+        int slot = node.getSlot();
+        return slot >= 0 && slot < size && nodes[slot] == node;
+    }
+
+    private void put(ASTNode node, int type) {
+        if (size == types.length) {
+            types = Arrays.copyOf(types, size * 2);
+            nodes = Arrays.copyOf(nodes, size * 2);
+        }
+        node.setSlot(size);
+        nodes[size] = node;
+        types[size++] = type;
+    }
+
+    /**
+     * @return The type of the node, whose subexpressions are all typed.
+     */
+    private int compute(ASTNode node) {
+        var children = node.getChildren();
+        if (children.isEmpty()) {
+            return of(UNDEFINED, 0, false);
+        }
+        switch (node.getGrammarType()) {
+            case NUMBER:
+                return of(INT, 0, true);
+            case LVAL: {
+                // LVal -> Ident {'[' Exp ']'}
+                int indices = 0;
+                for (ASTNode child : children) {
+                    if (child.getGrammarType() == GrammarType.LEFT_BRACKET) indices++;
+                }
+                Optional<Symbol> symbol = bindings.lookup((ASTLeaf) children.get(0));
+                if (symbol.isEmpty()) return of(UNDEFINED, 0, false);
+                if (symbol.get().getType() == SymbolType.VAR) {
+                    return of(INT, ((VarSymbol) symbol.get()).getDim() - indices, false);
+                } else if (symbol.get().getType() == SymbolType.CONST) {
+                    return of(INT, ((ConstSymbol) symbol.get()).getDim() - indices, true);
+                }
+                return of(UNDEFINED, 0, false);
+            }
+            case PRIMARY_EXP:
+                // PrimaryExp -> LVal | Number | '(' Exp ')'
+                boolean paren = children.get(0).getGrammarType() == GrammarType.LEFT_PAREN;
+                return typeOfChild(children.get(paren && children.size() > 1 ? 1 : 0));
+            case UNARY_EXP: {
+                ASTNode first = children.get(0);
+                if (first.getGrammarType() == GrammarType.UNARY_OP) {
+                    // UnaryOp UnaryExp
+                    return children.size() > 1 ? typeOfChild(children.get(1)) : of(UNDEFINED, 0, false);
+                } else if (first.getGrammarType() != GrammarType.IDENT) {
+                    return typeOfChild(first);
+                }
+                // Ident '(' [FuncRParams] ')'
+                Optional<Symbol> symbol = bindings.lookup((ASTLeaf) first);
+                if (symbol.isEmpty() || symbol.get().getType() != SymbolType.FUNC) return of(UNDEFINED, 0, false);
+                FuncSymbol func = (FuncSymbol) symbol.get();
+                return func.getFuncType() == FuncType.VOID ? of(VOID, 0, false) : of(INT, func.getDim(), false);
+            }
+            default: {
+                // Exp, ConstExp, Cond, and the binary expressions, the kind and dimension of the first operand
+                int type = typeOfChild(children.get(0));
+                boolean constant = isConst(type);
+                for (int i = 1; i < children.size(); i++) {
+                    if (isExpression(children.get(i))) constant &= isConst(types[children.get(i).getSlot()]);
+                }
+                return constant ? type | CONST_BIT : type & ~CONST_BIT;
+            }
+        }
+    }
+
+    /**
+     * @return The type of the child, or undefined if it is not an expression, e.g. in a subtree with syntax errors.
+     */
+    private int typeOfChild(ASTNode child) {
+        return isTyped(child) ? types[child.getSlot()] : of(UNDEFINED, 0, false);
+    }
+}
@@ -0,0 +1,205 @@
+package frontEnd.symbols;
+
+import exception.DupIdentError;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The symbols of all the open scopes in one table, for a pass that walks the scopes in order and leaves each one for
+ * good, rather than keeping a {@link SymbolTable} for each of them.
+ * <p>
+ * A name maps to its innermost binding in one open-addressing hash, and each binding links to the binding that it
+ * shadows, so that a lookup is one probe however deep the scope is. The names bound in a scope are kept in an undo log,
+ * from which {@link #exitScope()} unbinds them. Entering a scope only marks where its names begin in the log, so a scope
+ * that defines nothing costs nothing.
+ * <p>
+ * The symbols added to this table belong to no {@link SymbolTable}, their {@link Symbol#getSymbolTable()} is null.
+ */
+public final class FlatSymbolTable {
+    private final static int EMPTY = -1;
+    /**
+     * The ids of the names and their innermost bindings, null after all of a name's bindings are unbound. The ids are
+     * never removed, a name that is bound once is likely to be bound again.
+     */
+    private int[] ids;
+    private Binding[] heads;
+    private int names = 0;
+    /**
+     * The slots of the names bound in the open scopes, in the order they are bound.
+     */
+    private int[] log = new int[16];
+    private int logSize = 0;
+    /**
+     * Where the names of each open scope, the global one excluded, begin in the log.
+     */
+    private int[] marks = new int[16];
+    private int level = 0;
+
+    public FlatSymbolTable() {
+        this(64);
+    }
+
+    /**
+     * @param capacity The expected number of distinct names.
+     */
+    public FlatSymbolTable(int capacity) {
+        int length = Integer.highestOneBit(Math.max(capacity, 4) * 2 - 1) << 1;
+        this.ids = new int[length];
+        this.heads = new Binding[length];
+        Arrays.fill(ids, EMPTY);
+    }
+
+    /**
+     * @return The level of the innermost open scope, 0 for the global one.
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    public void enterScope() {
+        if (level == marks.length) {
+            marks = Arrays.copyOf(marks, level * 2);
+        }
+        marks[level++] = logSize;
+    }
+
+    /**
+     * Leave the innermost scope, unbinding the names defined in it.
+     */
+    public void exitScope() {
+        if (level == 0) {
+            throw new IllegalStateException("Exit from the global scope");
+        }
+        int mark = marks[--level];
+        while (logSize > mark) {
+            int slot = log[--logSize];
+            heads[slot] = heads[slot].shadowed;
+        }
+    }
+
+    /**
+     * @return True if the name is defined in the innermost scope, not looking in the outer ones.
+     */
+    public boolean contains(int id) {
+        int slot = find(id);
+        return slot != EMPTY && heads[slot] != null && heads[slot].level == level;
+    }
+
+    /**
+     * @return The error if the name is already defined in the innermost scope, in which case the symbol is not added.
+     */
+    public Optional<DupIdentError> addSymbol(Symbol symbol) {
+        int slot = slotOf(symbol.getId());
+        Binding pre = heads[slot];
+        if (pre != null && pre.level == level) {
+            return Optional.of(new DupIdentError(symbol.getToken(), pre.symbol.getToken()));
+        }
+        heads[slot] = new Binding(symbol, level, pre);
+        if (logSize == log.length) {
+            log = Arrays.copyOf(log, logSize * 2);
+        }
+        log[logSize++] = slot;
+        return Optional.empty();
+    }
+
+    /**
+     * Lookup a symbol in the innermost scope that defines its name.
+     *
+     * @param id The id of the name of the symbol, see {@link frontEnd.lexer.dataStruct.Token#getIdentId()}.
+     * @return The symbol if found, otherwise empty.
+     */
+    public Optional<Symbol> lookup(int id) {
+        int slot = find(id);
+        return slot == EMPTY || heads[slot] == null ? Optional.empty() : Optional.of(heads[slot].symbol);
+    }
+
+    /**
+     * @return The function symbol if the innermost symbol of the name is a function, otherwise empty.
+     */
+    public Optional<FuncSymbol> lookup4func(int id) {
+        Optional<Symbol> res = lookup(id);
+        if (res.isPresent() && res.get().getType() == SymbolType.FUNC) return Optional.of((FuncSymbol) res.get());
+        return Optional.empty();
+    }
+
+    /**
+     * @return The slot of the name, or EMPTY if it has none.
+     */
+    private int find(int id) {
+        int mask = ids.length - 1;
+        for (int i = mix(id) & mask; ids[i] != EMPTY; i = (i + 1) & mask) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return EMPTY;
+    }
+
+    /**
+     * @return The slot of the name, which is taken if it has none.
+     */
+    private int slotOf(int id) {
+        assert id >= 0;
+        int mask = ids.length - 1;
+        int i = mix(id) & mask;
+        for (; ids[i] != EMPTY; i = (i + 1) & mask) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        if ((names + 1) * 2 > ids.length) {
+            resize();
+            return slotOf(id);
+        }
+        ids[i] = id;
+        names++;
+        return i;
+    }
+
+    /**
+     * Double the slots, moving the slots in the undo log along with the names.
+     */
+    private void resize() {
+        int[] oldIds = ids;
+        Binding[] oldHeads = heads;
+        ids = new int[oldIds.length * 2];
+        heads = new Binding[oldHeads.length * 2];
+        Arrays.fill(ids, EMPTY);
+        int[] moved = new int[oldIds.length];
+        int mask = ids.length - 1;
+        for (int j = 0; j < oldIds.length; j++) {
+            if (oldIds[j] == EMPTY) continue;
+            int i = mix(oldIds[j]) & mask;
+            while (ids[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            ids[i] = oldIds[j];
+            heads[i] = oldHeads[j];
+            moved[j] = i;
+        }
+        for (int j = 0; j < logSize; j++) {
+            log[j] = moved[log[j]];
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * A symbol in the scope of a level, and the binding of the same name in an outer scope that it shadows.
+     */
+    private static final class Binding {
+        final Symbol symbol;
+        final int level;
+        final Binding shadowed;
+
+        Binding(Symbol symbol, int level, Binding shadowed) {
+            this.symbol = symbol;
+            this.level = level;
+            this.shadowed = shadowed;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package frontEnd.symbols;
+
+import frontEnd.parser.dataStruct.ASTLeaf;
+
+import java.util.IdentityHashMap;
+import java.util.Optional;
+
+/**
+ * The symbol of each Ident of an AST, filled once while the AST is checked, so that what a name refers to is read
+ * rather than looked up again in the scopes of the checks.
+ * <p>
+ * The Ident of a definition is bound to the symbol it defines, even if the name is already defined, and the Ident of a
+ * use to the symbol that the lookup found, or to nothing if the name is undefined. An Ident that is not bound is one
+ * that the checks never looked at, e.g. in a part of the source that a parse with an error limit did not reach.
+ */
+public final class NameBindings {
+    /**
+     * The symbols by Ident leaf, null for an undefined name.
+     */
+    private final IdentityHashMap<ASTLeaf, Symbol> symbols;
+
+    public NameBindings() {
+        this.symbols = new IdentityHashMap<>();
+    }
+
+    /**
+     * @param capacity The expected number of Idents.
+     */
+    public NameBindings(int capacity) {
+        this.symbols = new IdentityHashMap<>(capacity);
+    }
+
+    /**
+     * Bind the Ident to the symbol, replacing what it is bound to.
+     *
+     * @param symbol The symbol, or null if the name is undefined.
+     */
+    public void bind(ASTLeaf ident, Symbol symbol) {
+        symbols.put(ident, symbol);
+    }
+
+    public boolean isBound(ASTLeaf ident) {
+        return symbols.containsKey(ident);
+    }
+
+    /**
+     * @return The symbol that the Ident is bound to, or empty if the name is undefined or the Ident is not bound.
+     */
+    public Optional<Symbol> lookup(ASTLeaf ident) {
+        return Optional.ofNullable(symbols.get(ident));
+    }
+
+    public int size() {
+        return symbols.size();
+    }
+}
@@ -26,6 +26,13 @@ public abstract class Symbol {
         return this.token;
     }
 
+    /**
+     * @return The id of the name of this symbol, the key of it in its symbol table.
+     */
+    public int getId() {
+        return this.token.getIdentId();
+    }
+
     public SymbolTable getSymbolTable() {
         return this.symbolTable;
     }
@@ -2,9 +2,8 @@ package frontEnd.symbols;
 
 import exception.DupIdentError;
 import frontEnd.parser.dataStruct.ASTNode;
-import frontEnd.parser.dataStruct.ErrorHandler;
+import frontEnd.parser.dataStruct.utils.IntMap;
 
-import java.util.HashMap;
 import java.util.Optional;
 
 public class SymbolTable {
@@ -17,33 +16,49 @@ public class SymbolTable {
      */
     private final int level;
     /**
-     * The directory of this symbol table. To store symbols.
+     * The directory of this symbol table. To store symbols, keyed by the id of their names.
      */
-    private final HashMap<String, Symbol> directory = new HashMap<>();
+    private final IntMap<Symbol> directory = new IntMap<>();
 
     public SymbolTable(SymbolTable outer, ASTNode belongTo) {
+        this(outer);
+        belongTo.setSymbolTable(this);
+    }
+
+    /**
+     * A symbol table that belongs to no node.
+     */
+    public SymbolTable(SymbolTable outer) {
         this.outer = outer;
         if (outer == null) {
             this.level = 0; //global
         } else {
             this.level = outer.level + 1;
         }
-        belongTo.setSymbolTable(this);
     }
 
     public SymbolTable getOuter() {
         return outer;
     }
 
-    public void addSymbol(Symbol symbol, ErrorHandler errorHandler) {
-        String name = symbol.getToken().getRawValue();
-        if (!directory.containsKey(name)) {
-            this.directory.put(name, symbol);
-            return;
+    /**
+     * @return True if the name is defined in this symbol table, not looking in the outer ones.
+     */
+    public boolean contains(int id) {
+        return directory.containsKey(id);
+    }
+
+    /**
+     * @return The error if the name is already defined in this symbol table, in which case the symbol is not added.
+     */
+    public Optional<DupIdentError> addSymbol(Symbol symbol) {
+        Symbol pre = directory.putIfAbsent(symbol.getId(), symbol);
+        if (pre == null) {
+            return Optional.empty();
         }
         var token = symbol.getToken();
-        var preToken = directory.get(name).getToken();
-        errorHandler.addError(new DupIdentError(token, preToken));
+        var preToken = pre.getToken();
+        return Optional.of(new DupIdentError(token, preToken));
     }
 
     /**
@@ -51,15 +66,15 @@ public class SymbolTable {
      * <p>
      * Both for variable and function.
      *
-     * @param name The name of the symbol.(key)
+     * @param id The id of the name of the symbol, see {@link frontEnd.lexer.dataStruct.Token#getIdentId()}.(key)
      * @return The symbol if found, otherwise null.(value)
      */
-    public Optional<Symbol> lookup(String name) {
-        if (directory.containsKey(name)) {
-            return Optional.of(directory.get(name));
-        }
-        if (outer != null) {
-            return outer.lookup(name);
+    public Optional<Symbol> lookup(int id) {
+        for (SymbolTable table = this; table != null; table = table.outer) {
+            Symbol symbol = table.directory.get(id);
+            if (symbol != null) {
+                return Optional.of(symbol);
+            }
         }
         return Optional.empty();
     }
@@ -67,11 +82,11 @@ public class SymbolTable {
     /**
      * Lookup a function variable in this symbol table and its outer symbol tables.
      *
-     * @param name The name of the function.(key)
+     * @param id The id of the name of the function.(key)
      * @return The function symbol if found, otherwise null.(value)
      */
-    public Optional<FuncSymbol> lookup4func(String name) {
-        Optional<Symbol> res = lookup(name);
+    public Optional<FuncSymbol> lookup4func(int id) {
+        Optional<Symbol> res = lookup(id);
         if (res.isPresent() && res.get().getType() == SymbolType.FUNC) return Optional.of((FuncSymbol) res.get());
         return Optional.empty();
     }
@@ -1,10 +1,19 @@
 package middleEnd.visitor.llvm;
 
+import frontEnd.lexer.dataStruct.Token;
+import frontEnd.parser.dataStruct.ASTLeaf;
+import frontEnd.parser.dataStruct.ASTNode;
+import frontEnd.parser.dataStruct.utils.IntMap;
 import middleEnd.visitor.llvm.ir.Module;
 import middleEnd.visitor.os.IrPrintable;
 
 public class IrContext implements IrPrintable {
     Module irModule;
+    /**
+     * IR names of identifiers, keyed by the id of the identifier name, so each name is built once.
+     */
+    private final IntMap<String> globalNames = new IntMap<>();
+    private final IntMap<String> localNames = new IntMap<>();
 
     IrContext() {
 
@@ -14,6 +23,36 @@ public class IrContext implements IrPrintable {
         this.irModule = irModule;
     }
 
+    /**
+     * @param ident The leaf of the identifier, or of 'main'.
+     * @return The name of the identifier as a global, e.g. "@a".
+     */
+    public String globalName(ASTNode ident) {
+        return irName(globalNames, '@', ident);
+    }
+
+    /**
+     * @param ident The leaf of the identifier.
+     * @return The name of the identifier as a local, e.g. "%a".
+     */
+    public String localName(ASTNode ident) {
+        return irName(localNames, '%', ident);
+    }
+
+    private static String irName(IntMap<String> names, char prefix, ASTNode ident) {
+        Token token = ((ASTLeaf) ident).getToken();
+        if (token.getIdentId() < 0) {
+            // 'main' is a keyword, not an interned name
+            return prefix + token.getRawValue();
+        }
+        String name = names.get(token.getIdentId());
+        if (name == null) {
+            name = prefix + token.getRawValue();
+            names.putIfAbsent(token.getIdentId(), name);
+        }
+        return name;
+    }
+
     @Override
     public String toIrCode() {
         return irModule.toIrCode();
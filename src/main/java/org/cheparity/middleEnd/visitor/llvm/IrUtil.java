@@ -1,5 +1,6 @@
 package middleEnd.visitor.llvm;
 
+import frontEnd.parser.dataStruct.ASTLeaf;
 import frontEnd.parser.dataStruct.ASTNode;
 import frontEnd.parser.dataStruct.GrammarType;
 
@@ -11,7 +12,7 @@ public class IrUtil {
                 return CalculateConst(node.getChild(0));
             }
             case INT_CONST -> {
-                return Integer.parseInt(node.getRawValue());
+                return ((ASTLeaf) node).getToken().getIntValue();
             }
             case ADD_EXP -> {
                 // AddExp -> MulExp | AddExp '+' MulExp | AddExp '-' MulExp
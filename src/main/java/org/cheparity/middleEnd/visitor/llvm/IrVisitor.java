@@ -9,19 +9,18 @@ import middleEnd.visitor.llvm.ir.IrType;
 import middleEnd.visitor.llvm.ir.Module;
 
 public class IrVisitor implements ASTNodeVisitor {
-    private static IrVisitor instance;
+    private final static IrVisitor VISITOR_INSTANCE = new IrVisitor();
     private final IrBuilder builder = new IrBuilder();
     private final IrContext context = new IrContext();
 
-    private IrVisitor() {
+    /**
+     * A visitor with a context of its own, which shares no state with any other.
+     */
+    public IrVisitor() {
     }
 
     public static IrVisitor getInstance() {
-        if (instance == null) {
-            instance = new IrVisitor();
-            return instance;
-        }
-        return instance;
+        return VISITOR_INSTANCE;
     }
 
     public IrContext getContext() {
@@ -64,7 +63,7 @@ public class IrVisitor implements ASTNodeVisitor {
 //            ConstDecl -> 'const' BType ConstDef { ',' ConstDef } ';'
             for (var constDef : decl.getChildren()) {
                 if (constDef.getGrammarType() != GrammarType.CONST_DEF) continue;
-                String name = "@" + constDef.getChild(0).getRawValue();
+                String name = context.globalName(constDef.getChild(0));
                 value = IrUtil.CalculateConst(constDef.getChild(2));
                 builder.buildGlobalConstantValue(module, IrType.Int32TyID, name, value);
             }
@@ -72,7 +71,7 @@ public class IrVisitor implements ASTNodeVisitor {
 //            VarDecl -> BType VarDef { ',' VarDef } ';'
             for (var varDef : decl.getChildren()) {
                 if (varDef.getGrammarType() != GrammarType.VAR_DEF) continue;
-                String name = "@" + varDef.getChild(0).getRawValue();
+                String name = context.globalName(varDef.getChild(0));
                 if (varDef.getChildren().size() == 1) {
                     //VarDef -> Ident
                     builder.buildGlobalVariable(module, IrType.Int32TyID, name);
@@ -89,8 +88,8 @@ public class IrVisitor implements ASTNodeVisitor {
     private void visitFuncDef(ASTNode func, Module module) {
         assert func.getGrammarType().equals(GrammarType.FUNC_DEF) || func.getGrammarType().equals(GrammarType.MAIN_FUNC_DEF);
         IrType funcType = func.getChild(0).getGrammarType().equals(GrammarType.VOID) ? IrType.VoidTyID : IrType.Int32TyID;
-        String funcName = func.getChild(1).getRawValue();
-        Function function = builder.buildFunction(funcType, "@" + funcName, module);
+        String funcName = context.globalName(func.getChild(1));
+        Function function = builder.buildFunction(funcType, funcName, module);
         for (var child : func.getChildren()) {
             if (child.getGrammarType().equals(GrammarType.FUNC_RPARAMS)) {
                 for (ASTNode param : child.getChildren()) {
@@ -108,7 +107,7 @@ public class IrVisitor implements ASTNodeVisitor {
                         //VarDecl -> BType VarDef { ',' VarDef } ';'
                         for (var varDef : decOrStmt.getChildren()) {
                             if (varDef.getGrammarType() != GrammarType.VAR_DEF) continue;
-                            String name = "%" + varDef.getChild(0).getRawValue();
+                            String name = context.localName(varDef.getChild(0));
                             if (varDef.getChildren().size() == 1) {
                                 //VarDef -> Ident
                                 builder.buildLocalVariable(function, IrType.Int32TyID, name);
@@ -0,0 +1,382 @@
+package middleEnd.visitor.semantic;
+
+import exception.*;
+import frontEnd.lexer.dataStruct.FormatString;
+import frontEnd.lexer.dataStruct.Token;
+import frontEnd.parser.dataStruct.ASTLeaf;
+import frontEnd.parser.dataStruct.ASTNode;
+import frontEnd.parser.dataStruct.ErrorHandler;
+import frontEnd.parser.dataStruct.GrammarType;
+import frontEnd.parser.dataStruct.utils.ParserUtil;
+import frontEnd.parser.impl.RecursiveDescentParser;
+import frontEnd.symbols.*;
+import middleEnd.visitor.ASTNodeVisitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The semantic checks of an AST in one walk over the tree: the scopes of the names, the assignments to constants, the
+ * calls, the break and continue statements and the return statements. The parser only builds the tree, and checks
+ * each top-level item by a visitor as it takes the item, so a node is checked once, however often the parser
+ * backtracked over it.
+ * <p>
+ * The names are checked in the scopes of the language: the global one, one for each function that its parameters and
+ * the outermost Block of its body share, and one for each Block inside it. A name is defined after its own ConstDef or
+ * VarDef, and a break or continue must be in the Stmt of a 'for'.
+ * <p>
+ * In compatible mode the checks are bug for bug the ones that the parser made when it checked the names itself, at the
+ * same nodes, so that the errors stay what they were. A Block opens a scope that its '}' does not close: at the '}' the
+ * parser closed the scope that the Stmt it failed to parse there opened instead. A Stmt other than an assignment, an
+ * Exp or a Block opens a scope too. So the scopes are never left, and a name is seen by every function after it. The
+ * parameters of a function are defined in the scope that the function is defined in, and the names of a Decl after
+ * its last ConstDef or VarDef. The loop of a break or continue is looked for as a ForStmt above it, which it never
+ * is.
+ */
+public class SemanticVisitor implements ASTNodeVisitor {
+    private final ErrorHandler errorHandler;
+    private final FlatSymbolTable symbols = new FlatSymbolTable();
+    private final NameBindings bindings = new NameBindings();
+    private final ExpTypes expTypes = new ExpTypes(bindings);
+    /**
+     * True for the checks of the parser, bug for bug, see the class doc.
+     */
+    private final boolean compatible;
+    /**
+     * The number of 'for' statements that the current node is in.
+     */
+    private int loops = 0;
+
+    /**
+     * @param errorHandler The handler that the errors are added to, e.g. the one with the syntax errors of the same
+     *                     AST, see {@link RecursiveDescentParser#getErrorHandler()}.
+     */
+    public SemanticVisitor(ErrorHandler errorHandler) {
+        this(errorHandler, false);
+    }
+
+    /**
+     * @param compatible True for compatible mode, in which the errors are those that the parser found when it checked
+     *                   the names itself, see the class doc.
+     */
+    public SemanticVisitor(ErrorHandler errorHandler, boolean compatible) {
+        this.errorHandler = errorHandler;
+        this.compatible = compatible;
+    }
+
+    /**
+     * @return The symbol of each Ident of the AST, see {@link NameBindings}.
+     */
+    public NameBindings getBindings() {
+        return bindings;
+    }
+
+    /**
+     * @return The types of the expressions that the checks needed, see {@link ExpTypes}.
+     */
+    public ExpTypes getExpTypes() {
+        return expTypes;
+    }
+
+    /**
+     * Check the CompUnit, or a top-level item of it after the items before it. A visitor checks one AST, as its symbols
+     * are left in the scopes of that AST.
+     */
+    @Override
+    public void visit(ASTNode node) {
+        if (node.getGrammarType() == GrammarType.COMP_UNIT) {
+            visitChildren(node);
+        } else {
+            visitNode(node);
+        }
+    }
+
+    private void visitNode(ASTNode node) {
+        switch (node.getGrammarType()) {
+            case CONST_DECL:
+            case VAR_DECL:
+                visitDecl(node);
+                break;
+            case FUNC_DEF:
+                visitFuncDef(node);
+                break;
+            case MAIN_FUNC_DEF:
+                visitMainFuncDef(node);
+                break;
+            case BLOCK:
+                // Block -> '{' { BlockItem } '}'
+                symbols.enterScope();
+                visitChildren(node);
+                if (!compatible) {
+                    symbols.exitScope();
+                }
+                break;
+            case STMT:
+                visitStmt(node);
+                break;
+            case FOR_STMT:
+                visitForStmt(node);
+                break;
+            case LVAL:
+                visitLVal(node);
+                break;
+            case UNARY_EXP:
+                if (node.getChild(0).getGrammarType() == GrammarType.IDENT) {
+                    visitCall(node);
+                } else {
+                    visitChildren(node);
+                }
+                break;
+            default:
+                visitChildren(node);
+        }
+    }
+
+    private void visitChildren(ASTNode node) {
+        visitChildren(node, 0);
+    }
+
+    private void visitChildren(ASTNode node, int from) {
+        List<ASTNode> children = node.getChildren();
+        for (int i = from; i < children.size(); i++) {
+            visitNode(children.get(i));
+        }
+    }
+
+    //ConstDecl -> 'const' BType ConstDef { ',' ConstDef } ';'
+    //VarDecl   -> BType VarDef { ',' VarDef } ';'
+    private void visitDecl(ASTNode decl) {
+        if (compatible) {
+            //the initial values are checked before the names of the Decl are defined
+            visitChildren(decl);
+        }
+        boolean constant = decl.getGrammarType() == GrammarType.CONST_DECL;
+        for (ASTNode def : decl.getChildren()) {
+            if (!compatible) {
+                visitNode(def);
+            }
+            if (def.getGrammarType() != GrammarType.CONST_DEF && def.getGrammarType() != GrammarType.VAR_DEF) continue;
+            ASTLeaf ident = (ASTLeaf) def.getChild(0);
+            int dim = ParserUtil.getDim4Def(def);
+            define(decl, ident, constant ? new ConstSymbol(null, ident.getToken(), dim) :
+                    new VarSymbol(null, ident.getToken(), dim));
+        }
+    }
+
+    //FuncDef -> FuncType Ident '(' [FuncFParams] ')' Block
+    private void visitFuncDef(ASTNode funcDef) {
+        GrammarType t = funcDef.getChild(0).getChild(0).getGrammarType();
+        FuncType type = (t == GrammarType.VOID ? FuncType.VOID : FuncType.INT);
+        ASTLeaf ident = (ASTLeaf) funcDef.getChild(1);
+        FuncSymbol symbol = new FuncSymbol(null, ident.getToken(), type);
+        define(funcDef, ident, symbol);
+        if (!compatible) {
+            symbols.enterScope();
+        }
+
+        List<VarSymbol> params = new ArrayList<>();
+        ASTNode funcFParams = funcDef.getChild(3);
+        if (funcFParams.getGrammarType() == GrammarType.FUNC_FPARAMS) {
+            for (ASTNode funcFParam : funcFParams.getChildren()) {
+                if (funcFParam.getGrammarType() == GrammarType.FUNC_FPARAM) {
+                    params.add(visitFuncFParam(funcFParam));
+                }
+            }
+        }
+        symbol.setFParams(params);
+        symbol.setDim(type);
+
+        ASTNode block = lastChild(funcDef);
+        visitBody(block);
+        Optional<ASTNode> ret = block.deepDownFind(GrammarType.RETURN, 3);
+        if (type == FuncType.INT && ret.isEmpty()) {
+            error(funcDef, new RetStmtMissedError(block.lastToken()));
+        } else if (type == FuncType.VOID && ret.isPresent() && ret.get().getFather().getChildren().size() > 2) {
+            error(funcDef, new RedundantRetStmtError(((ASTLeaf) ret.get()).getToken()));
+        }
+    }
+
+    //FuncFParam -> BType Ident ['[' ']' { '[' ConstExp ']' }]
+    private VarSymbol visitFuncFParam(ASTNode funcFParam) {
+        visitChildren(funcFParam);
+        ASTLeaf ident = (ASTLeaf) funcFParam.getChild(1);
+        VarSymbol symbol = new VarSymbol(null, ident.getToken(), ParserUtil.getDim4Def(funcFParam));
+        define(funcFParam, ident, symbol);
+        return symbol;
+    }
+
+    //MainFuncDef -> 'int' 'main' '(' ')' Block
+    private void visitMainFuncDef(ASTNode mainFuncDef) {
+        ASTNode block = lastChild(mainFuncDef);
+        if (!compatible) {
+            symbols.enterScope();
+        }
+        visitBody(block);
+        if (block.deepDownFind(GrammarType.RETURN, 3).isEmpty()) {
+            error(mainFuncDef, new RetStmtMissedError(block.lastToken()));
+        }
+    }
+
+    /**
+     * Visit the Block of a function, in the scope of the function, which is left after it.
+     */
+    private void visitBody(ASTNode block) {
+        if (compatible) {
+            //the Block opens a scope of its own, with the parameters outside it
+            visitNode(block);
+        } else {
+            visitChildren(block);
+            symbols.exitScope();
+        }
+    }
+
+    private void visitStmt(ASTNode stmt) {
+        List<ASTNode> children = stmt.getChildren();
+        ASTNode first = children.get(0);
+        //the index of the keyword or the ';' of a statement that opens a scope
+        int k = 0;
+        switch (first.getGrammarType()) {
+            case LVAL: {
+                //LVal '=' Exp ';' | LVal '=' 'getint' '(' ')' ';'
+                visitLVal(first);
+                ASTLeaf ident = (ASTLeaf) first.getChild(0);
+                if (isConst(ident)) {
+                    error(stmt, new ConstChangedError(ident.getToken()));
+                }
+                GrammarType value = children.size() > 2 ? children.get(2).getGrammarType() : GrammarType.EXP;
+                if (value == GrammarType.EXP || value == GrammarType.GETINT) {
+                    visitChildren(stmt, 1);
+                    return;
+                }
+                //with neither after the '=', the parser goes on to a keyword statement after it
+                k = 2;
+                break;
+            }
+            case EXP:
+            case BLOCK:
+                visitChildren(stmt);
+                return;
+            default:
+                break;
+        }
+
+        if (compatible) {
+            //the other statements open a scope, see the class doc
+            symbols.enterScope();
+        }
+        ASTNode keyword = children.get(k);
+        switch (keyword.getGrammarType()) {
+            case BREAK:
+            case CONTINUE: {
+                //in compatible mode the loop is looked for as the parser does, as a ForStmt above the keyword
+                boolean inLoop = compatible ? keyword.deepUpFind(GrammarType.FOR_STMT).isPresent() : loops > 0;
+                if (!inLoop) {
+                    error(stmt, new NotLoopStmtError(((ASTLeaf) keyword).getToken()));
+                }
+                break;
+            }
+            case PRINTF: {
+                //'printf' '(' FormatString {',' Exp} ')' ';'
+                visitChildren(stmt, k);
+                FormatString format = ((ASTLeaf) children.get(k + 2)).getToken().getFormatString();
+                int exps = 0;
+                for (int i = k; i < children.size(); i++) {
+                    if (children.get(i).getGrammarType() == GrammarType.EXP) exps++;
+                }
+                if (format.getPlaceholderCount() != exps) {
+                    error(stmt, new PrintfUnmatchedError(((ASTLeaf) keyword).getToken()));
+                }
+                break;
+            }
+            case FOR:
+                //'for' '(' [ForStmt] ';' [Cond] ';' [ForStmt] ')' Stmt
+                loops++;
+                visitChildren(stmt, k);
+                loops--;
+                break;
+            default:
+                //'if' '(' Cond ')' Stmt [ 'else' Stmt ] | 'return' [Exp] ';' | ';'
+                visitChildren(stmt, k);
+        }
+    }
+
+    //ForStmt -> LVal '=' Exp
+    private void visitForStmt(ASTNode forStmt) {
+        ASTNode lVal = forStmt.getChild(0);
+        visitLVal(lVal);
+        ASTLeaf ident = (ASTLeaf) lVal.getChild(0);
+        if (isConst(ident)) {
+            error(forStmt, new ConstChangedError(ident.getToken()));
+        } else if (bindings.lookup(ident).isEmpty()) {
+            error(forStmt, new UndefinedIdentError(ident.getToken()));
+        }
+        visitChildren(forStmt, 1);
+    }
+
+    //LVal -> Ident {'[' Exp ']'}
+    private void visitLVal(ASTNode lVal) {
+        ASTLeaf ident = (ASTLeaf) lVal.getChild(0);
+        Optional<Symbol> symbol = symbols.lookup(ident.getToken().getIdentId());
+        bindings.bind(ident, symbol.orElse(null));
+        if (symbol.isEmpty()) {
+            error(lVal, new UndefinedIdentError(ident.getToken()));
+        }
+        visitChildren(lVal);
+    }
+
+    //UnaryExp -> Ident '(' [FuncRParams] ')'
+    private void visitCall(ASTNode unaryExp) {
+        ASTLeaf ident = (ASTLeaf) unaryExp.getChild(0);
+        Optional<Symbol> symbol = symbols.lookup(ident.getToken().getIdentId());
+        bindings.bind(ident, symbol.orElse(null));
+        if (symbol.isEmpty() || symbol.get().getType() != SymbolType.FUNC) {
+            error(unaryExp, new UndefinedIdentError(ident.getToken()));
+        }
+        visitChildren(unaryExp);
+        List<ASTNode> children = unaryExp.getChildren();
+        if (symbol.isPresent() && symbol.get().getType() == SymbolType.FUNC && children.size() > 2
+                && children.get(2).getGrammarType() == GrammarType.FUNC_RPARAMS) {
+            checkArgs((FuncSymbol) symbol.get(), children.get(2), ident.getToken());
+        }
+    }
+
+    //FuncRParams -> Exp { ',' Exp }
+    private void checkArgs(FuncSymbol func, ASTNode funcRParams, Token funcCallTk) {
+        List<ASTNode> args = new ArrayList<>();
+        for (ASTNode child : funcRParams.getChildren()) {
+            if (child.getGrammarType() == GrammarType.EXP) args.add(child);
+        }
+        int expectParamsNum = func.getParamCount();
+        List<VarSymbol> expectParams = func.getParams();
+        if (expectParamsNum != args.size()) {
+            error(funcRParams, new FuncParamCntNotMatchedError(expectParamsNum, args.size(), funcCallTk));
+            return;
+        }
+        for (int i = 0; i < expectParamsNum; i++) {
+            int actualDim = ExpTypes.getDim(expTypes.typeOf(args.get(i)));
+            int expectDim = expectParams.get(i).getDim();
+            if (actualDim == expectDim) break;
+            error(funcRParams, new FuncParamTypeNotMatchedError("dim " + expectDim, "dim " + actualDim, funcCallTk));
+        }
+    }
+
+    private void define(ASTNode node, ASTLeaf ident, Symbol symbol) {
+        bindings.bind(ident, symbol);
+        symbols.addSymbol(symbol).ifPresent(e -> error(node, e));
+    }
+
+    private boolean isConst(ASTLeaf ident) {
+        Optional<Symbol> symbol = bindings.lookup(ident);
+        return symbol.isPresent() && symbol.get().getType() == SymbolType.CONST;
+    }
+
+    private static ASTNode lastChild(ASTNode node) {
+        return node.getChildren().get(node.getChildren().size() - 1);
+    }
+
+    private void error(ASTNode node, GrammarError e) {
+        //found after the parse, so there is nothing to roll them back with
+        errorHandler.addError(node, e, 0);
+    }
+}
@@ -0,0 +1,118 @@
+package session;
+
+import exception.GrammarError;
+import frontEnd.lexer.TokenStream;
+import frontEnd.lexer.dataStruct.LexType;
+import frontEnd.lexer.dataStruct.SourceBuffer;
+import frontEnd.lexer.dataStruct.Token;
+import frontEnd.lexer.impl.DfaLexer;
+import frontEnd.output.AnswerWriter;
+import frontEnd.parser.dataStruct.ASTNode;
+import frontEnd.parser.impl.RecursiveDescentParser;
+import frontEnd.symbols.NameBindings;
+import middleEnd.visitor.llvm.IrVisitor;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The compilation of one source. A session has a lexer, a parser (with its errors and the symbols of its semantic
+ * checks) and an IR visitor of its own, and shares no mutable state with other sessions, so that sessions of
+ * different sources can run on different threads at the same time. A session itself is not thread-safe, and is meant
+ * to be used by one thread.
+ */
+public class CompilationSession {
+    private final DfaLexer lexer;
+    private final RecursiveDescentParser parser = new RecursiveDescentParser();
+    private final IrVisitor irVisitor = new IrVisitor();
+    private boolean parsed = false;
+
+    public CompilationSession(SourceBuffer source) {
+        this.lexer = new DfaLexer(source);
+    }
+
+    public static CompilationSession of(Path path) throws IOException {
+        return new CompilationSession(SourceBuffer.map(path));
+    }
+
+    public static CompilationSession of(String source) {
+        return new CompilationSession(SourceBuffer.of(source));
+    }
+
+    public DfaLexer getLexer() {
+        return lexer;
+    }
+
+    /**
+     * For the options of the parser, such as {@link RecursiveDescentParser#setMemoize(boolean)}, which are to be set
+     * before {@link #parse()}.
+     */
+    public RecursiveDescentParser getParser() {
+        return parser;
+    }
+
+    /**
+     * Parse the source and check the AST, once. The tokens are pulled from the lexer as the parser reads them.
+     *
+     * @return The AST.
+     */
+    public ASTNode parse() {
+        ensureParsed();
+        return parser.getAST();
+    }
+
+    /**
+     * @return The errors of the source, those of the syntax and of the semantics together, sorted by their tokens.
+     */
+    public List<GrammarError> getErrors() {
+        ensureParsed();
+        return parser.getErrors();
+    }
+
+    /**
+     * @return The symbol of each Ident of the source, see {@link NameBindings}.
+     */
+    public NameBindings getBindings() {
+        ensureParsed();
+        return parser.getBindings();
+    }
+
+    /**
+     * @return The LLVM IR of the source.
+     */
+    public String generateIr() {
+        irVisitor.visit(parse());
+        return irVisitor.getContext().toIrCode();
+    }
+
+    /**
+     * Write the tokens, the syntax tree and the errors, in this order. If the source cannot be lexed, what is written
+     * is discarded and the writer is left empty.
+     */
+    public void writeAnswers(AnswerWriter writer) {
+        try {
+            lexer.reset();
+            Optional<Token> token;
+            while ((token = lexer.next()).isPresent()) {
+                if (token.get().getLexType() == LexType.COMMENT) continue;
+                writer.writeToken(token.get());
+            }
+        } catch (RuntimeException e) {
+            writer.discard();
+            throw e;
+        }
+        writer.writeTree(parse());
+        writer.writeErrors(getErrors());
+    }
+
+    private void ensureParsed() {
+        if (!parsed) {
+            lexer.reset();
+            parser.setTokens(new TokenStream(lexer));
+            parser.parse();
+            parsed = true;
+        }
+    }
+}
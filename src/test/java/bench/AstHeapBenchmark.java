@@ -0,0 +1,55 @@
+package bench;
+
+import frontEnd.lexer.LexPool;
+import frontEnd.lexer.impl.DfaLexer;
+import frontEnd.parser.dataStruct.AstArena;
+import frontEnd.parser.impl.RecursiveDescentParser;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Heap that the tree of a large source keeps, as objects and as an arena. Not a test; run it by hand.
+ */
+public class AstHeapBenchmark {
+    public static void main(String[] args) {
+        int functions = 4000;
+        int lines = functions * Sources.LINES_PER_FUNCTION + 3;
+        LexPool tokens = new DfaLexer(Sources.functions(functions)).tokenize();
+
+        RecursiveDescentParser parser = new RecursiveDescentParser();
+        long before = usedHeap();
+        long gcBefore = gcMillis();
+        parser.setTokens(tokens);
+        parser.parse();
+        long gcParse = gcMillis() - gcBefore;
+        long tree = usedHeap() - before;
+
+        gcBefore = gcMillis();
+        AstArena arena = AstArena.of(parser.getAST());
+        long gcArena = gcMillis() - gcBefore;
+        // drops the tree
+        parser = null;
+        long arenaHeap = usedHeap() - before;
+
+        System.out.printf("%d lines, %d nodes: tree %d bytes/line (gc %d ms), "
+                        + "arena %d bytes/line (gc %d ms, arrays %d bytes)%n",
+                lines, arena.size(), tree / lines, gcParse, arenaHeap / lines, gcArena, arena.getMemory());
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(bean.getCollectionTime(), 0);
+        }
+        return millis;
+    }
+}
@@ -0,0 +1,72 @@
+package bench;
+
+import frontEnd.lexer.dataStruct.SourceBuffer;
+import frontEnd.lexer.impl.ByteScanner;
+import frontEnd.lexer.impl.DfaLexer;
+import frontEnd.lexer.impl.LexerImpl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Bytes per second of LexerImpl, and of DfaLexer with either scanner. Not a test; run it by hand from the project
+ * root, with {@code --add-modules jdk.incubator.vector}.
+ */
+public class LexerBenchmark {
+    private final static int ROUNDS = 20;
+    private final static ByteScanner scalar = ByteScanner.scalar();
+    private final static ByteScanner best = ByteScanner.getInstance();
+
+    public static void main(String[] args) throws IOException {
+        // testfile.txt repeated
+        String file = Files.readString(Paths.get("./testfile.txt"));
+        int repeat = Math.max(1, (8 << 20) / Math.max(1, file.length()));
+        SourceBuffer source = SourceBuffer.of(file.repeat(repeat));
+        long start = System.nanoTime();
+        int legacyRounds = Math.max(1, repeat / 16);
+        for (int i = 0; i < legacyRounds; i++) {
+            LexerImpl.getInstance().getAllTokens();
+        }
+        long legacy = System.nanoTime() - start;
+        long[] times = measure(source);
+        System.out.printf("LexerImpl %.1f MB/s, DfaLexer scalar %.1f MB/s, DfaLexer %s %.1f MB/s%n",
+                mbPerSecond((long) file.length() * legacyRounds, legacy),
+                mbPerSecond(source.length(), times[0]),
+                best.getClass().getSimpleName(), mbPerSecond(source.length(), times[1]));
+
+        // long comments and indentation are where scanning many bytes at a time pays off
+        String unit = "/*" + " documentation of the function below. ".repeat(8) + "*/\n"
+                + "                int long_identifier_of_a_variable = 1; // " + "trailing remark ".repeat(6) + "\n";
+        source = SourceBuffer.of(unit.repeat((8 << 20) / unit.length()));
+        times = measure(source);
+        System.out.printf("Comments: DfaLexer scalar %.1f MB/s, DfaLexer %s %.1f MB/s%n",
+                mbPerSecond(source.length(), times[0]),
+                best.getClass().getSimpleName(), mbPerSecond(source.length(), times[1]));
+    }
+
+    /**
+     * @return The best nanoseconds of DfaLexer with the scalar scanner and with the best scanner, after warming up.
+     */
+    private static long[] measure(SourceBuffer source) {
+        long[] times = {Long.MAX_VALUE, Long.MAX_VALUE};
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            int expected = new DfaLexer(source, scalar).tokenize().size();
+            long mid = System.nanoTime();
+            int actual = new DfaLexer(source, best).tokenize().size();
+            long end = System.nanoTime();
+            if (actual != expected) {
+                throw new IllegalStateException(expected + " tokens with the scalar scanner, " + actual + " with "
+                        + best.getClass().getSimpleName());
+            }
+            times[0] = Math.min(times[0], mid - start);
+            times[1] = Math.min(times[1], end - mid);
+        }
+        return times;
+    }
+
+    private static double mbPerSecond(long bytes, long nanos) {
+        return bytes / 1048576.0 / (nanos / 1e9);
+    }
+}
@@ -0,0 +1,32 @@
+package bench;
+
+/**
+ * Sources generated for tests and benchmarks.
+ */
+public final class Sources {
+    /**
+     * Lines of each function of {@link #functions(int)}.
+     */
+    public final static int LINES_PER_FUNCTION = 7;
+
+    private Sources() {
+    }
+
+    /**
+     * @return {@code functions} functions {@code f<i>} of a few statements each, then an empty main function of 3
+     * lines.
+     */
+    public static String functions(int functions) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < functions; i++) {
+            sb.append("int f").append(i).append("(int x, int a[]) {\n")
+                    .append("    int y = x * 2 + a[0];\n")
+                    .append("    if (y > 3 && x != 1) {\n")
+                    .append("        y = y - 1;\n")
+                    .append("    }\n")
+                    .append("    return y;\n")
+                    .append("}\n");
+        }
+        return sb.append("int main() {\n    return 0;\n}\n").toString();
+    }
+}
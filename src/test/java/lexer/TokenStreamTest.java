@@ -0,0 +1,71 @@
+package lexer;
+
+import frontEnd.lexer.LexPool;
+import frontEnd.lexer.TokenStream;
+import frontEnd.lexer.impl.DfaLexer;
+import frontEnd.parser.dataStruct.ASTNode;
+import frontEnd.parser.impl.RecursiveDescentParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TokenStreamTest {
+    private final static String SOURCE = "int a = 1; // comment\n/* block */ int main() { return a; }";
+
+    @Test
+    public void testSameAsLexPool() {
+        LexPool expected = new DfaLexer(SOURCE).tokenize();
+        TokenStream stream = new TokenStream(new DfaLexer(SOURCE));
+        Assert.assertTrue(stream.has(expected.size() - 1));
+        Assert.assertFalse(stream.has(expected.size()));
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.getLexType(i), stream.getLexType(i));
+            Assert.assertEquals(expected.getRawValue(i), stream.getRawValue(i));
+            Assert.assertEquals(expected.getLineNum(i), stream.getLineNum(i));
+            Assert.assertEquals(expected.getColNum(i), stream.getColNum(i));
+            Assert.assertEquals(expected.getIdentId(i), stream.getIdentId(i));
+        }
+        Assert.assertEquals(expected.size(), stream.size());
+    }
+
+    @Test
+    public void testRelease() {
+        TokenStream stream = new TokenStream(new DfaLexer(SOURCE));
+        Assert.assertTrue(stream.has(3));
+        Assert.assertSame(stream.getToken(1), stream.getToken(1));
+        stream.release(2);
+        Assert.assertEquals(2, stream.getWindowSize());
+        Assert.assertEquals("1", stream.getRawValue(3));
+        Assert.assertThrows(IllegalStateException.class, () -> stream.getToken(1));
+    }
+
+    @Test
+    public void testParseWithBoundedWindow() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            sb.append("int f").append(i).append("(int x) { int y = x * 2; if (y > 3) { return y; } return x + ")
+                    .append(i).append("; }\n");
+        }
+        sb.append("int main() { return f1(2); }\n");
+        RecursiveDescentParser parser = new RecursiveDescentParser();
+        LexPool tokens = new DfaLexer(sb.toString()).tokenize();
+
+        parser.setTokens(tokens);
+        parser.parse();
+        String expected = dump(parser.getAST(), new StringBuilder()).toString();
+
+        TokenStream stream = new TokenStream(new DfaLexer(sb.toString()));
+        parser.setTokens(stream);
+        parser.parse();
+        Assert.assertEquals(expected, dump(parser.getAST(), new StringBuilder()).toString());
+        // only the main function is left
+        Assert.assertTrue(stream.getWindowSize() < 20);
+    }
+
+    private static StringBuilder dump(ASTNode node, StringBuilder sb) {
+        sb.append(node.getGrammarType()).append(' ');
+        for (ASTNode child : node.getChildren()) {
+            dump(child, sb);
+        }
+        return sb;
+    }
+}
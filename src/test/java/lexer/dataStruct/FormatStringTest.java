@@ -0,0 +1,52 @@
+package lexer.dataStruct;
+
+import frontEnd.lexer.LexPool;
+import frontEnd.lexer.dataStruct.FormatString;
+import frontEnd.lexer.dataStruct.IntConst;
+import frontEnd.lexer.impl.DfaLexer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class FormatStringTest {
+
+    @Test
+    public void testSegments() {
+        FormatString format = FormatString.of("\"a = %d, b = %d\\n\"");
+        Assert.assertTrue(format.isValid());
+        Assert.assertEquals(2, format.getPlaceholderCount());
+        Assert.assertEquals(List.of("a = ", ", b = ", "\\n"), format.getTextRuns());
+
+        format = FormatString.of("\"%d%d\"");
+        Assert.assertEquals(List.of("", "", ""), format.getTextRuns());
+        Assert.assertEquals(List.of(""), FormatString.of("\"\"").getTextRuns());
+    }
+
+    @Test
+    public void testInvalid() {
+        Assert.assertFalse(FormatString.of("\"%c\"").isValid());
+        Assert.assertFalse(FormatString.of("\"%\"").isValid());
+        Assert.assertFalse(FormatString.of("\"\\t\"").isValid());
+        Assert.assertFalse(FormatString.of("\"a\\\"").isValid());
+        Assert.assertFalse(FormatString.of("\"#&'\"").isValid());
+        Assert.assertFalse(FormatString.of("\"\u00e9\"").isValid());
+        // the '%' before '%d' is wrong, the '%d' is still a placeholder
+        FormatString format = FormatString.of("\"%%d\"");
+        Assert.assertFalse(format.isValid());
+        Assert.assertEquals(1, format.getPlaceholderCount());
+        Assert.assertTrue(FormatString.of("\"! ()~\"").isValid());
+    }
+
+    @Test
+    public void testLexerDecodes() {
+        LexPool tokens = new DfaLexer("printf(\"%d%d\", 2147483647, 2147483648);").tokenize();
+        Assert.assertEquals(2, tokens.getFormatString(2).getPlaceholderCount());
+        Assert.assertEquals(2, tokens.getToken(2).getFormatString().getPlaceholderCount());
+        Assert.assertEquals(Integer.MAX_VALUE, tokens.getIntValue(4));
+        Assert.assertFalse(tokens.isOverflow(4));
+        Assert.assertEquals(Integer.MIN_VALUE, tokens.getToken(6).getIntValue());
+        Assert.assertTrue(tokens.getToken(6).isOverflow());
+        Assert.assertEquals(Long.MAX_VALUE, IntConst.parse("99999999999999999999", 0, 20));
+    }
+}
@@ -0,0 +1,46 @@
+package lexer.dataStruct;
+
+import frontEnd.lexer.dataStruct.LexType;
+import frontEnd.lexer.dataStruct.LexTypeClassifier;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class LexTypeClassifierTest {
+
+    @Test
+    public void testReserved() {
+        for (LexType lexType : LexType.values()) {
+            if (!lexType.isPreserved()) continue;
+            String value = lexType.getValue();
+            Assert.assertEquals(lexType, LexTypeClassifier.ofReserved(value, 0, value.length()));
+            Assert.assertEquals(lexType, LexType.ofValue(value));
+        }
+        for (String ident : new String[]{"i", "ifx", "integer", "fo", "mains", "Const", "brk", "getInt", "continue_"}) {
+            Assert.assertNull(LexTypeClassifier.ofReserved(ident, 0, ident.length()));
+            Assert.assertEquals(LexType.IDENFR, LexType.ofValue(ident));
+        }
+        Assert.assertEquals(LexType.INTCON, LexType.ofValue("120"));
+        Assert.assertEquals(LexType.STRCON, LexType.ofValue("\"%d\""));
+        Assert.assertNull(LexTypeClassifier.ofSymbol("&", 0, 1));
+        Assert.assertNull(LexTypeClassifier.ofSymbol("=>", 0, 2));
+    }
+
+    /**
+     * Every word of a keyword dense corpus is classified as by a linear search of the values.
+     */
+    @Test
+    public void testKeywordDenseCorpus() {
+        String[] corpus = "int main ( ) { const int a = 1 ; if ( a >= 1 && a != 2 ) return a ; else break ; }".split(" ");
+        for (String word : corpus) {
+            LexType expected = Arrays.stream(LexType.values())
+                    .filter(lexType -> lexType.isPreserved() && lexType.getValue().equals(word))
+                    .findFirst().orElse(null);
+            Assert.assertEquals(word, expected, LexTypeClassifier.ofReserved(word, 0, word.length()));
+            if (expected != null) {
+                Assert.assertEquals(word, expected, LexType.ofValue(word));
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package lexer.dataStruct;
+
+import frontEnd.lexer.dataStruct.LineIndex;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LineIndexTest {
+    private final LineIndex index = LineIndex.of("int a;\n\nint b = 1;\nc");
+
+    @Test
+    public void testLineOf() {
+        Assert.assertEquals(4, index.getLineCount());
+        Assert.assertEquals(1, index.lineOf(0));
+        Assert.assertEquals(1, index.lineOf(6));
+        Assert.assertEquals(2, index.lineOf(7));
+        Assert.assertEquals(3, index.lineOf(8));
+        Assert.assertEquals(4, index.lineOf(19));
+    }
+
+    @Test
+    public void testColumnOf() {
+        Assert.assertEquals(1, index.columnOf(0, 3));
+        Assert.assertEquals(5, index.columnOf(12, 13));
+        // followed by '\n', the same as LexerImpl has always reported
+        Assert.assertEquals(-1, index.columnOf(17, 18));
+        Assert.assertEquals(1, index.columnOf(19, 20));
+    }
+}
@@ -0,0 +1,61 @@
+package lexer.dataStruct;
+
+import frontEnd.lexer.LexPool;
+import frontEnd.lexer.dataStruct.LexType;
+import frontEnd.lexer.dataStruct.NamePool;
+import frontEnd.lexer.dataStruct.SourceBuffer;
+import frontEnd.lexer.dataStruct.Token;
+import frontEnd.lexer.impl.DfaLexer;
+import frontEnd.parser.dataStruct.utils.IntMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NamePoolTest {
+
+    @Test
+    public void testIntern() {
+        NamePool pool = new NamePool();
+        String source = "a abc a_1 abc a";
+        Assert.assertEquals(0, pool.intern(source, 0, 1));
+        Assert.assertEquals(1, pool.intern(source, 2, 3));
+        Assert.assertEquals(2, pool.intern(source, 6, 3));
+        Assert.assertEquals(1, pool.intern(source, 10, 3));
+        Assert.assertEquals(0, pool.intern(source, 14, 1));
+        Assert.assertEquals(3, pool.size());
+        Assert.assertSame(pool.getName(1), pool.getName(pool.intern("abc")));
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(3 + i, pool.intern("v" + i));
+        }
+        Assert.assertEquals(500 + 3, pool.intern("v500"));
+        Assert.assertEquals("v999", pool.getName(1002));
+    }
+
+    @Test
+    public void testLexerIds() {
+        LexPool tokens = new DfaLexer("int main() { int x = y + x; return x; }").tokenize();
+        int x = tokens.getIdentId(6);
+        Assert.assertEquals("x", tokens.getRawValue(6));
+        Assert.assertEquals(-1, tokens.getIdentId(0));
+        Assert.assertEquals(x, tokens.getIdentId(10));
+        Assert.assertEquals(x, tokens.getToken(13).getIdentId());
+        Assert.assertNotEquals(x, tokens.getIdentId(8));
+    }
+
+    /**
+     * An identifier cannot be made without the id of its name, and no map takes -1 for a key.
+     */
+    @Test
+    public void testNoIdentWithoutId() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> new Token(1, 1, "x"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> new Token(1, 1, "x", LexType.IDENFR));
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> new Token(LexType.IDENFR, SourceBuffer.of("x"), 0, 1));
+        Assert.assertEquals(0, new Token(SourceBuffer.of("x"), 0, 1, 0, "x").getIdentId());
+        Assert.assertEquals(0, new Token(1, 1, "x", LexType.IDENFR, 0).getIdentId());
+        Assert.assertEquals(-1, new Token(1, 1, "int").getIdentId());
+        IntMap<String> map = new IntMap<>();
+        Assert.assertThrows(IllegalArgumentException.class, () -> map.put(-1, "x"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> map.putIfAbsent(-1, "x"));
+        Assert.assertNull(map.get(-1));
+    }
+}
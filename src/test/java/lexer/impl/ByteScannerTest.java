@@ -0,0 +1,64 @@
+package lexer.impl;
+
+import frontEnd.lexer.LexPool;
+import frontEnd.lexer.dataStruct.SourceBuffer;
+import frontEnd.lexer.impl.ByteScanner;
+import frontEnd.lexer.impl.DfaLexer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+public class ByteScannerTest {
+    private final ByteScanner scalar = ByteScanner.scalar();
+    private final ByteScanner best = ByteScanner.getInstance();
+
+    @Test
+    public void testSameAsScalar() {
+        Random random = new Random(42);
+        // short runs of a few kinds of bytes, so that every lane position is hit
+        byte[] alphabet = " \t\n\r\u0001~\\`azAZ09_*/\"!}".getBytes();
+        byte[] data = new byte[4096];
+        for (int i = 0; i < data.length; ) {
+            byte b = random.nextInt(8) == 0 ? (byte) (128 + random.nextInt(128)) : alphabet[random.nextInt(alphabet.length)];
+            for (int run = random.nextInt(40); run > 0 && i < data.length; run--) {
+                data[i++] = b;
+            }
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(data).asReadOnlyBuffer();
+        for (int from = 0; from < data.length; from++) {
+            int end = Math.min(data.length, from + random.nextInt(100));
+            Assert.assertEquals(scalar.skipBlanks(bytes, from, end), best.skipBlanks(bytes, from, end));
+            Assert.assertEquals(scalar.skipIdent(bytes, from, end), best.skipIdent(bytes, from, end));
+            Assert.assertEquals(scalar.indexOf(bytes, (byte) '*', from, end), best.indexOf(bytes, (byte) '*', from, end));
+            Assert.assertEquals(scalar.indexOfEither(bytes, (byte) '"', (byte) '\n', from, end),
+                    best.indexOfEither(bytes, (byte) '"', (byte) '\n', from, end));
+        }
+    }
+
+    /**
+     * DfaLexer finds the same tokens with either scanner, in code and in long comments and indentation.
+     */
+    @Test
+    public void testSameTokens() throws IOException {
+        String comments = "/*" + " documentation of the function below. ".repeat(8) + "*/\n"
+                + "                int long_identifier_of_a_variable = 1; // " + "trailing remark ".repeat(6) + "\n";
+        for (String text : new String[]{Files.readString(Paths.get("./testfile.txt")), comments.repeat(20)}) {
+            SourceBuffer source = SourceBuffer.of(text);
+            LexPool expected = new DfaLexer(source, scalar).tokenize();
+            LexPool actual = new DfaLexer(source, best).tokenize();
+            Assert.assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                Assert.assertEquals(expected.getLexType(i), actual.getLexType(i));
+                Assert.assertEquals(expected.getOffset(i), actual.getOffset(i));
+                Assert.assertEquals(expected.getLength(i), actual.getLength(i));
+                Assert.assertEquals(expected.getLineNum(i), actual.getLineNum(i));
+                Assert.assertEquals(expected.getColNum(i), actual.getColNum(i));
+            }
+        }
+    }
+}
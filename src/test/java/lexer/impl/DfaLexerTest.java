@@ -0,0 +1,78 @@
+package lexer.impl;
+
+import exception.LexErrorException;
+import frontEnd.lexer.dataStruct.LexType;
+import frontEnd.lexer.dataStruct.Token;
+import frontEnd.lexer.impl.DfaLexer;
+import frontEnd.lexer.impl.LexerImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class DfaLexerTest {
+
+    @Test
+    public void testSameAsLexerImpl() {
+        List<Token> expected = LexerImpl.getInstance().getAllTokens();
+        List<Token> actual = DfaLexer.getInstance().getAllTokens();
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i).getLexType(), actual.get(i).getLexType());
+            Assert.assertEquals(expected.get(i).getRawValue(), actual.get(i).getRawValue());
+            Assert.assertEquals(expected.get(i).getLineNum(), actual.get(i).getLineNum());
+            Assert.assertEquals(expected.get(i).getColNum(), actual.get(i).getColNum());
+        }
+    }
+
+    @Test
+    public void testCommentsAndOperators() {
+        var lexer = new DfaLexer("a<=b// c\n/* d\n*e */x!=\"%d\\n\"&&y||!z");
+        var tokens = lexer.getAllTokens();
+        String[] raw = {"a", "<=", "b", "x", "!=", "\"%d\\n\"", "&&", "y", "||", "!", "z"};
+        Assert.assertEquals(raw.length, tokens.size());
+        for (int i = 0; i < raw.length; i++) {
+            Assert.assertEquals(raw[i], tokens.get(i).getRawValue());
+        }
+        Assert.assertEquals(3, tokens.get(3).getLineNum());
+    }
+
+    @Test
+    public void testMappedFile() throws IOException {
+        Path path = Files.createTempFile("dfa", ".sy");
+        try {
+            Files.writeString(path, "int main() {\n\tprintf(\"%d\\n\", 1);\n}");
+            var tokens = new DfaLexer(path).getAllTokens();
+            Assert.assertEquals(13, tokens.size());
+            Assert.assertEquals("printf", tokens.get(5).getRawValue());
+            Assert.assertEquals("\"%d\\n\"", tokens.get(7).getRawValue());
+            Assert.assertEquals(2, tokens.get(7).getLineNum());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * No IntConst but 0 begins with a '0', as in LexType.ofValue.
+     */
+    @Test
+    public void testLeadingZero() {
+        var tokens = new DfaLexer("0 10 100 a0 0a").getAllTokens();
+        String[] raw = {"0", "10", "100", "a0", "0", "a"};
+        LexType[] types = {LexType.INTCON, LexType.INTCON, LexType.INTCON, LexType.IDENFR, LexType.INTCON, LexType.IDENFR};
+        Assert.assertEquals(raw.length, tokens.size());
+        for (int i = 0; i < raw.length; i++) {
+            Assert.assertEquals(raw[i], tokens.get(i).getRawValue());
+            Assert.assertEquals(types[i], tokens.get(i).getLexType());
+        }
+        for (String number : new String[]{"08", "007", "00"}) {
+            LexErrorException e = Assert.assertThrows(LexErrorException.class,
+                    () -> new DfaLexer("int b = " + number + ";").tokenize());
+            Assert.assertEquals("LexType [" + number + "] not found.", e.getMessage());
+            Assert.assertThrows(LexErrorException.class, () -> LexType.ofValue(number));
+        }
+    }
+}
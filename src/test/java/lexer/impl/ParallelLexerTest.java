@@ -0,0 +1,81 @@
+package lexer.impl;
+
+import exception.LexErrorException;
+import frontEnd.lexer.LexPool;
+import frontEnd.lexer.dataStruct.SourceBuffer;
+import frontEnd.lexer.impl.DfaLexer;
+import frontEnd.lexer.impl.ParallelLexer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelLexerTest {
+    private final static String UNIT = """
+            int f_%d(int a[], int b) { // line comment with "quote
+                /* block
+                   comment // with "quote and
+                   newlines **/
+                printf("a // b /* c %%d\\n", a[0] + b);
+                if (a[1] <= b && b != 0 || !a[2]) return 1;
+                return b*2/3%%4;
+            }
+            """;
+
+    private static String sourceOf(int units) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < units; i++) {
+            sb.append(String.format(UNIT, i % 50));
+        }
+        return sb.toString();
+    }
+
+    private static void assertSame(LexPool expected, LexPool actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.getLexType(i), actual.getLexType(i));
+            Assert.assertEquals(expected.getOffset(i), actual.getOffset(i));
+            Assert.assertEquals(expected.getLength(i), actual.getLength(i));
+            Assert.assertEquals(expected.getIdentId(i), actual.getIdentId(i));
+            Assert.assertEquals(expected.getLineNum(i), actual.getLineNum(i));
+            Assert.assertEquals(expected.getColNum(i), actual.getColNum(i));
+        }
+        Assert.assertEquals(expected.getNamePool().size(), actual.getNamePool().size());
+    }
+
+    @Test
+    public void testSameAsSequential() {
+        SourceBuffer source = SourceBuffer.of(sourceOf(200));
+        LexPool expected = new DfaLexer(source).tokenize();
+        for (int chunkSize : new int[]{1, 7, 64, 1000, 1 << 20}) {
+            assertSame(expected, new ParallelLexer(source, ForkJoinPool.commonPool(), chunkSize).tokenize());
+        }
+    }
+
+    @Test
+    public void testFirstErrorIsThrown() {
+        String source = sourceOf(20) + "int a = \"broken\n" + sourceOf(20) + "int b = \"too\n";
+        String expected = null;
+        try {
+            new DfaLexer(source).tokenize();
+        } catch (LexErrorException e) {
+            expected = e.getMessage();
+        }
+        Assert.assertNotNull(expected);
+        try {
+            new ParallelLexer(SourceBuffer.of(source), ForkJoinPool.commonPool(), 100).tokenize();
+            Assert.fail();
+        } catch (LexErrorException e) {
+            Assert.assertEquals(expected, e.getMessage());
+        }
+    }
+
+    /**
+     * A source of a few chunks of 1 MB.
+     */
+    @Test
+    public void testMegabyteChunks() {
+        SourceBuffer source = SourceBuffer.of(sourceOf(10_000));
+        assertSame(new DfaLexer(source).tokenize(), new ParallelLexer(source, ForkJoinPool.commonPool(), 1 << 20).tokenize());
+    }
+}
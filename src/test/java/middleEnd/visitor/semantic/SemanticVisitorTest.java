@@ -0,0 +1,187 @@
+package middleEnd.visitor.semantic;
+
+import exception.GrammarError;
+import frontEnd.lexer.dataStruct.Token;
+import frontEnd.lexer.impl.DfaLexer;
+import frontEnd.parser.dataStruct.ASTLeaf;
+import frontEnd.parser.dataStruct.ErrorHandler;
+import frontEnd.parser.dataStruct.GrammarType;
+import frontEnd.parser.impl.RecursiveDescentParser;
+import frontEnd.symbols.NameBindings;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SemanticVisitorTest {
+    private final static String ERRORS = "const int c = 1;\n" +
+            "int a[2][3], b[3];\n" +
+            "int g;\n" +
+            "int g;\n" +
+            "void v() { return 1; }\n" +
+            "int h(int x[], int y[][3], int z) {\n" +
+            "    c = 2;\n" +
+            "    for (c = 1; ; z = z + 1) break;\n" +
+            "    for (w = 1; ; ) continue;\n" +
+            "    return h(b, a, a[1]) + h(a, b, 1) + h(a[0], a, b[0]);\n" +
+            "}\n" +
+            "void k(int k) { }\n" +
+            "int n() { }\n" +
+            "int main() {\n" +
+            "    int x = x;\n" +
+            "    { int y; }\n" +
+            "    int y;\n" +
+            "    if (x) ;\n" +
+            "    int x;\n" +
+            "    k(a); k(h); k(k(1)); k(1, 2); u(1); x = g();\n" +
+            "    c = break;\n" +
+            "    printf(\"%d %d\", x);\n" +
+            "    return c\n" +
+            "}\n";
+
+    /**
+     * The errors that the parser found when it checked the names itself, before the checks were moved here.
+     */
+    private final static String EXPECTED = "4 b Duplicate identifier in (4,5), previous definition in (3,5)\n" +
+            "5 f Redundant return statement in (5,12)\n" +
+            "7 h Const value cannot be changed in (7,5)\n" +
+            "8 h Const value cannot be changed in (8,10)\n" +
+            "8 m Break or continue not in loop at line 8, column 30.\n" +
+            "9 c Undefined identifier in (9,10)\n" +
+            "9 m Break or continue not in loop at line 9, column 21.\n" +
+            "10 e Mismatch parameter type, expect dim 1, actual dim 2\n" +
+            "12 b Duplicate identifier in (12,12), previous definition in (12,6)\n" +
+            "13 g Lack of return statement in (13,-1)\n" +
+            "17 b Duplicate identifier in (17,9), previous definition in (16,11)\n" +
+            "20 e Mismatch parameter type, expect dim 0, actual dim 2\n" +
+            "20 e Mismatch parameter type, expect dim 0, actual dim -1\n" +
+            "20 e Mismatch parameter type, expect dim 0, actual dim -1\n" +
+            "20 d Mismatch parameter count, expect 1, actual 2\n" +
+            "20 c Undefined identifier in (20,35)\n" +
+            "20 c Undefined identifier in (20,45)\n" +
+            "21 h Const value cannot be changed in (21,5)\n" +
+            "21 m Break or continue not in loop at line 21, column 9.\n" +
+            "22 l Unmatched params in printf at line 22, column 5.\n" +
+            "23 i Lack of semicolon in (23,-1)\n";
+
+    private final static String SCOPES = "int a;\n" +
+            "int f(int x) {\n" +
+            "    int x;\n" +
+            "    for (;;) { if (x) break; continue; }\n" +
+            "    { int b; }\n" +
+            "    b = 1;\n" +
+            "    int y;\n" +
+            "    if (x) ;\n" +
+            "    int y;\n" +
+            "    return 0;\n" +
+            "}\n" +
+            "int main() {\n" +
+            "    x = 1;\n" +
+            "    break;\n" +
+            "    int a;\n" +
+            "    return 0;\n" +
+            "}\n";
+
+    @Test
+    public void testSameErrorsAsParser() throws IOException {
+        Assert.assertEquals(EXPECTED, format(parse(ERRORS).getErrors()));
+        Assert.assertEquals("14 b Duplicate identifier in (14,7), previous definition in (11,9)\n",
+                format(parse(Files.readString(Path.of("./testfile.txt"))).getErrors()));
+    }
+
+    /**
+     * The parser checks each top-level item as it takes it, with the same errors as a check of the whole AST after
+     * the parse.
+     */
+    @Test
+    public void testWholeAst() {
+        RecursiveDescentParser parser = parse(ERRORS);
+        ErrorHandler errors = new ErrorHandler();
+        SemanticVisitor visitor = new SemanticVisitor(errors, true);
+        visitor.visit(parser.getAST());
+        // the missing ';' of the last return is a syntax error
+        Assert.assertEquals(EXPECTED.replace("23 i Lack of semicolon in (23,-1)\n", ""), format(errors.getErrors()));
+    }
+
+    /**
+     * The names are bound to the same definitions as by a check of the whole AST.
+     */
+    @Test
+    public void testBindings() {
+        RecursiveDescentParser parser = parse(ERRORS);
+        SemanticVisitor visitor = new SemanticVisitor(new ErrorHandler(), true);
+        visitor.visit(parser.getAST());
+        List<Token> expected = definitions(parser.getAST().leaves(), visitor.getBindings());
+        List<Token> actual = definitions(parser.getAST().leaves(), parser.getBindings());
+        Assert.assertEquals(expected, actual);
+        // int x = x;
+        Assert.assertEquals(15, actual.get(29).getLineNum());
+        // u(1)
+        Assert.assertNull(actual.get(42));
+    }
+
+    /**
+     * The scopes of the language: a Block is left at its '}', the parameters share the scope of the body, and a
+     * statement opens no scope.
+     */
+    @Test
+    public void testScopes() {
+        ErrorHandler errors = new ErrorHandler();
+        new SemanticVisitor(errors).visit(parse(SCOPES).getAST());
+        Assert.assertEquals("3 b Duplicate identifier in (3,9), previous definition in (2,11)\n" +
+                "6 c Undefined identifier in (6,5)\n" +
+                "9 b Duplicate identifier in (9,9), previous definition in (7,9)\n" +
+                "13 c Undefined identifier in (13,5)\n" +
+                "14 m Break or continue not in loop at line 14, column 5.\n", format(errors.getErrors()));
+
+        RecursiveDescentParser parser = new RecursiveDescentParser();
+        parser.setCompatible(false);
+        parser.setTokens(new DfaLexer(SCOPES).tokenize());
+        parser.parse();
+        Assert.assertEquals(format(errors.getErrors()), format(parser.getErrors()));
+    }
+
+    /**
+     * Compatible mode, in which the scopes are never left and every break and continue is reported.
+     */
+    @Test
+    public void testCompatibleScopes() {
+        Assert.assertEquals("4 m Break or continue not in loop at line 4, column 23.\n" +
+                "4 m Break or continue not in loop at line 4, column 30.\n" +
+                "14 m Break or continue not in loop at line 14, column 5.\n", format(parse(SCOPES).getErrors()));
+    }
+
+    private static RecursiveDescentParser parse(String source) {
+        RecursiveDescentParser parser = new RecursiveDescentParser();
+        parser.setTokens(new DfaLexer(source).tokenize());
+        parser.parse();
+        return parser;
+    }
+
+    /**
+     * @return The token that defines the symbol of each Ident, null if the name is undefined.
+     */
+    private static List<Token> definitions(Iterable<ASTLeaf> leaves, NameBindings bindings) {
+        List<Token> tokens = new ArrayList<>();
+        for (ASTLeaf leaf : leaves) {
+            if (leaf.getGrammarType() == GrammarType.IDENT) {
+                Assert.assertTrue(bindings.isBound(leaf));
+                tokens.add(bindings.lookup(leaf).map(symbol -> symbol.getToken()).orElse(null));
+            }
+        }
+        return tokens;
+    }
+
+    private static String format(List<GrammarError> errors) {
+        StringBuilder sb = new StringBuilder();
+        for (GrammarError error : errors) {
+            sb.append(error.getToken().getLineNum()).append(' ').append(error.getCode().getValue()).append(' ')
+                    .append(error.getMessage()).append('\n');
+        }
+        return sb.toString();
+    }
+}
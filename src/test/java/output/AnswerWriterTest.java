@@ -0,0 +1,99 @@
+package output;
+
+import frontEnd.lexer.LexPool;
+import frontEnd.lexer.dataStruct.LexType;
+import frontEnd.lexer.dataStruct.Token;
+import frontEnd.lexer.impl.DfaLexer;
+import frontEnd.lexer.impl.LexerImpl;
+import frontEnd.output.AnswerWriter;
+import frontEnd.parser.dataStruct.ASTLeaf;
+import frontEnd.parser.dataStruct.ASTNode;
+import frontEnd.parser.dataStruct.GrammarType;
+import frontEnd.parser.impl.RecursiveDescentParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class AnswerWriterTest {
+    private final RecursiveDescentParser parser = new RecursiveDescentParser();
+
+    @Test
+    public void testSameAsPrintStream() throws IOException {
+        parser.setTokens(LexerImpl.getInstance().getAllTokens());
+        parser.parse();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        PrintStream ps = new PrintStream(expected);
+        LexPool tokens = new DfaLexer(Files.readString(Path.of("./testfile.txt"))).tokenize();
+        for (int i = 0; i < tokens.size(); i++) {
+            ps.print(tokens.getLexType(i) + " " + tokens.getRawValue(i) + "\n");
+        }
+        print(parser.getAST(), ps);
+        parser.getErrors().forEach(e -> ps.println(e.getToken().getLineNum() + " " + e.getCode().getValue()));
+        ps.flush();
+
+        Path file = Files.createTempFile("answer", ".txt");
+        try (AnswerWriter writer = new AnswerWriter(file)) {
+            for (int i = 0; i < tokens.size(); i++) {
+                writer.writeToken(tokens.getToken(i));
+            }
+            writer.writeTree(parser.getAST());
+            writer.writeErrors(parser.getErrors());
+        }
+        Assert.assertArrayEquals(expected.toByteArray(), Files.readAllBytes(file));
+        Files.delete(file);
+    }
+
+    @Test
+    public void testDeepTree() throws IOException {
+        int depth = 100000;
+        ASTNode root = new ASTNode(GrammarType.COMP_UNIT);
+        ASTNode node = root;
+        for (int i = 0; i < depth; i++) {
+            ASTNode child = new ASTNode(GrammarType.BLOCK);
+            node.addChild(child);
+            node = child;
+        }
+        node.addChild(new ASTLeaf(new Token(1, 1, ";")));
+        Path file = Files.createTempFile("answer", ".txt");
+        try (AnswerWriter writer = new AnswerWriter(file)) {
+            writer.writeTree(root);
+        }
+        String text = Files.readString(file);
+        Assert.assertTrue(text.startsWith("SEMICN ;" + System.lineSeparator() + "<Block>"));
+        Assert.assertTrue(text.endsWith("<CompUnit>" + System.lineSeparator()));
+        Files.delete(file);
+    }
+
+    @Test
+    public void testDiscard() throws IOException {
+        Path file = Files.createTempFile("answer", ".txt");
+        try (AnswerWriter writer = new AnswerWriter(file)) {
+            for (int i = 0; i < 100000; i++) {
+                writer.writeToken(new Token(1, 1, "x", LexType.IDENFR, 0));
+            }
+            writer.discard();
+        }
+        Assert.assertEquals(0, Files.size(file));
+        Files.delete(file);
+    }
+
+    private static void print(ASTNode tree, PrintStream ps) {
+        for (var child : tree.getChildren()) {
+            print(child, ps);
+        }
+        GrammarType g = tree.getGrammarType();
+        if (g == GrammarType.BLOCK_ITEM || g == GrammarType.DECL || g == GrammarType.B_TYPE) {
+            return;
+        }
+        if (tree instanceof ASTLeaf) {
+            ps.println(((ASTLeaf) tree).getToken().getLexType() + " " + ((ASTLeaf) tree).getToken().getRawValue());
+        } else {
+            ps.println("<" + tree.getGrammarType().getValue() + ">");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package parser.dataStruct;
+
+import frontEnd.lexer.impl.LexerImpl;
+import frontEnd.parser.dataStruct.ASTLeaf;
+import frontEnd.parser.dataStruct.ASTNode;
+import frontEnd.parser.dataStruct.ArenaNode;
+import frontEnd.parser.dataStruct.AstArena;
+import frontEnd.parser.impl.RecursiveDescentParser;
+import junit.framework.TestCase;
+
+public class AstArenaTest extends TestCase {
+    private final RecursiveDescentParser parser = new RecursiveDescentParser();
+
+    public void testSameTree() {
+        parser.setTokens(LexerImpl.getInstance().getAllTokens());
+        parser.parse();
+        ASTNode root = parser.getAST();
+        AstArena arena = AstArena.of(root);
+        assertEquals(0, arena.getRoot());
+        int[] next = {0};
+        assertSameTree(root, arena.handle(0), next);
+        assertEquals(arena.size(), next[0]);
+    }
+
+    private static void assertSameTree(ASTNode node, ArenaNode handle, int[] next) {
+        assertEquals(next[0]++, handle.getId());
+        assertEquals(node.getGrammarType(), handle.getGrammarType());
+        assertSame(node.getSymbolTable(), handle.getSymbolTable());
+        if (node instanceof ASTLeaf) {
+            assertSame(((ASTLeaf) node).getToken(), handle.getToken());
+            return;
+        }
+        assertNull(handle.getToken());
+        if (!node.getChildren().isEmpty()) {
+            assertEquals(rawValue(node, new StringBuilder()).toString(), handle.getRawValue());
+            assertSame(node.lastToken(), handle.lastToken());
+        }
+        assertEquals(node.getChildren().size(), handle.getChildren().size());
+        for (int i = 0; i < node.getChildren().size(); i++) {
+            ArenaNode child = handle.getChild(i);
+            assertEquals(handle, child.getFather());
+            assertSameTree(node.getChild(i), child, next);
+        }
+    }
+
+    private static StringBuilder rawValue(ASTNode node, StringBuilder sb) {
+        if (node instanceof ASTLeaf) {
+            return sb.append(((ASTLeaf) node).getToken().getRawValue());
+        }
+        for (ASTNode child : node.getChildren()) {
+            rawValue(child, sb);
+        }
+        return sb;
+    }
+}
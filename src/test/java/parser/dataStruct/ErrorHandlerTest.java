@@ -0,0 +1,62 @@
+package parser.dataStruct;
+
+import exception.GrammarError;
+import exception.RParenMissedError;
+import exception.SemicolonMissedError;
+import exception.UndefinedIdentError;
+import frontEnd.lexer.dataStruct.LexType;
+import frontEnd.lexer.dataStruct.Token;
+import frontEnd.parser.dataStruct.ASTNode;
+import frontEnd.parser.dataStruct.ErrorHandler;
+import frontEnd.parser.dataStruct.GrammarType;
+import junit.framework.TestCase;
+
+import java.util.List;
+
+public class ErrorHandlerTest extends TestCase {
+    private final Token x = new Token(1, 5, "x", LexType.IDENFR, 0);
+    private final Token y = new Token(2, 3, "y", LexType.IDENFR, 1);
+
+    public void testRollback() {
+        ErrorHandler handler = new ErrorHandler();
+        ASTNode node = new ASTNode(GrammarType.STMT);
+        handler.addError(node, new UndefinedIdentError(x), 1);
+        handler.addError(node, new UndefinedIdentError(y), 5);
+        ErrorHandler since = handler.since(3);
+        handler.rollback(3);
+        assertEquals(1, handler.getErrors().size());
+        handler.addAll(since);
+        assertEquals(2, handler.getErrors().size());
+
+        handler.commit();
+        handler.rollback(0);
+        assertEquals(2, handler.getErrors().size());
+        assertNull(handler.since(0));
+    }
+
+    public void testSortedOnePerToken() {
+        ErrorHandler handler = new ErrorHandler();
+        ASTNode stmt = new ASTNode(GrammarType.STMT);
+        ASTNode unaryExp = new ASTNode(GrammarType.UNARY_EXP);
+        stmt.addChild(unaryExp);
+        handler.addError(stmt, new UndefinedIdentError(y), 4);
+        handler.addError(unaryExp, new RParenMissedError(x), 2);
+        handler.addError(stmt, new SemicolonMissedError(x), 2);
+        List<GrammarError> errors = handler.getErrors();
+        assertEquals(2, errors.size());
+        // the error of the Stmt is kept, as if the tree was walked from the root
+        assertTrue(errors.get(0) instanceof SemicolonMissedError);
+        assertSame(y, errors.get(1).getToken());
+    }
+
+    public void testLimit() {
+        ErrorHandler handler = new ErrorHandler(1);
+        ASTNode node = new ASTNode(GrammarType.STMT);
+        assertFalse(handler.isFull());
+        handler.addError(node, new UndefinedIdentError(y), 4);
+        handler.addError(node, new UndefinedIdentError(x), 2);
+        assertTrue(handler.isFull());
+        assertEquals(1, handler.getErrors().size());
+        assertSame(x, handler.getErrors().get(0).getToken());
+    }
+}
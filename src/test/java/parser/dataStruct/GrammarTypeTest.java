@@ -9,4 +9,24 @@ public class GrammarTypeTest extends TestCase {
     public void testGrammarEnum() {
 
     }
-}
\ No newline at end of file
+
+    public void testFirst() {
+        assertEquals(g.first(), java.util.Set.of(GrammarType.ASSIGN));
+        assertEquals(GrammarType.FORMAT_STRING.first(), java.util.Set.of(GrammarType.FORMAT_STRING));
+        assertTrue(GrammarType.EXP.first().contains(GrammarType.NOT));
+        assertFalse(GrammarType.EXP.first().contains(GrammarType.LEFT_BRACE));
+        assertTrue(GrammarType.STMT.first().containsAll(GrammarType.EXP.first()));
+        assertTrue(GrammarType.BLOCK_ITEM.first().contains(GrammarType.CONST));
+        assertTrue(GrammarType.COMP_UNIT.first().isEmpty());
+    }
+
+    public void testTerminalOf() {
+        for (var lexType : frontEnd.lexer.dataStruct.LexType.values()) {
+            if (lexType.isPreserved()) {
+                assertEquals(lexType.getValue(), GrammarType.terminalOf(lexType).getValue());
+            }
+        }
+        assertEquals(GrammarType.IDENT, GrammarType.terminalOf(frontEnd.lexer.dataStruct.LexType.IDENFR));
+        assertNull(GrammarType.terminalOf(frontEnd.lexer.dataStruct.LexType.COMMENT));
+    }
+}
@@ -0,0 +1,115 @@
+package parser.dataStruct;
+
+import frontEnd.lexer.dataStruct.LexType;
+import frontEnd.lexer.dataStruct.Token;
+import frontEnd.lexer.impl.LexerImpl;
+import frontEnd.parser.dataStruct.ASTLeaf;
+import frontEnd.parser.dataStruct.ASTNode;
+import frontEnd.parser.dataStruct.GrammarType;
+import frontEnd.parser.dataStruct.TreeCursor;
+import frontEnd.parser.impl.RecursiveDescentParser;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TreeCursorTest extends TestCase {
+    private final RecursiveDescentParser parser = new RecursiveDescentParser();
+
+    public void testOrders() {
+        parser.setTokens(LexerImpl.getInstance().getAllTokens());
+        parser.parse();
+        ASTNode root = parser.getAST();
+
+        List<ASTNode> pre = new ArrayList<>();
+        List<ASTNode> post = new ArrayList<>();
+        walk(root, pre, post);
+        assertEquals(pre, collect(root.preOrder()));
+        assertEquals(post, collect(root.postOrder()));
+
+        // a cursor that is reset walks the tree again
+        TreeCursor cursor = TreeCursor.preOrder();
+        collect(cursor.reset(root.getChild(0)));
+        assertEquals(pre, collect(cursor.reset(root)));
+
+        List<Token> leaves = new ArrayList<>();
+        for (ASTNode node : pre) {
+            if (node instanceof ASTLeaf) {
+                leaves.add(((ASTLeaf) node).getToken());
+            }
+        }
+        assertEquals(leaves, root.getLeaves());
+    }
+
+    private static void walk(ASTNode node, List<ASTNode> pre, List<ASTNode> post) {
+        pre.add(node);
+        for (ASTNode child : node.getChildren()) {
+            walk(child, pre, post);
+        }
+        post.add(node);
+    }
+
+    private static List<ASTNode> collect(TreeCursor cursor) {
+        List<ASTNode> nodes = new ArrayList<>();
+        for (ASTNode node = cursor.next(); node != null; node = cursor.next()) {
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    public void testSmallTree() {
+        // Stmt(Exp(Ident) ;)
+        ASTNode stmt = new ASTNode(GrammarType.STMT);
+        ASTNode exp = new ASTNode(GrammarType.EXP);
+        exp.addChild(new ASTLeaf(new Token(1, 1, "a", LexType.IDENFR, 0), GrammarType.IDENT));
+        stmt.addChild(exp);
+        stmt.addChild(new ASTLeaf(new Token(1, 2, ";", LexType.SEMICN), GrammarType.SEMICOLON));
+
+        assertEquals("STMT(EXP(IDENT)SEMICOLON)", stmt.peekTree());
+        assertEquals("a", exp.getRawValue());
+        assertEquals("a;", stmt.getRawValue());
+        assertSame(exp, stmt.deepDownFind(GrammarType.EXP, 1).orElseThrow());
+        assertTrue(stmt.deepDownFind(GrammarType.IDENT, 1).isEmpty());
+        assertTrue(stmt.deepDownFind(GrammarType.IDENT, 2).isPresent());
+        ASTNode ident = exp.getChild(0);
+        assertTrue(ident.deepUpFind(GrammarType.STMT, 1).isEmpty());
+        assertSame(stmt, ident.deepUpFind(GrammarType.STMT, 2).orElseThrow());
+        assertSame(stmt, ident.deepUpFind(GrammarType.STMT).orElseThrow());
+    }
+
+    /**
+     * A tree much deeper than the call stack could walk by recursion.
+     */
+    public void testDeepTree() {
+        int depth = 1_000_000;
+        ASTNode root = new ASTNode(GrammarType.EXP);
+        ASTNode node = root;
+        for (int i = 1; i < depth; i++) {
+            ASTNode child = new ASTNode(GrammarType.EXP);
+            node.addChild(child);
+            node = child;
+        }
+        Token token = new Token(1, 1, "x", LexType.IDENFR, 0);
+        node.addChild(new ASTLeaf(token, GrammarType.IDENT));
+
+        assertSame(token, root.lastToken());
+        assertEquals("x", root.getRawValue());
+        assertEquals(1, root.getLeaves().size());
+        assertTrue(root.deepDownFind(GrammarType.IDENT, depth).isPresent());
+        assertTrue(root.deepDownFind(GrammarType.IDENT, depth - 1).isEmpty());
+        ASTNode leaf = node.getChild(0);
+        assertTrue(leaf.deepUpFind(GrammarType.STMT).isEmpty());
+        assertSame(node, leaf.deepUpFind(GrammarType.EXP, depth).orElseThrow());
+        assertTrue(root.peekTree().endsWith("IDENT" + ")".repeat(depth)));
+
+        TreeCursor cursor = TreeCursor.postOrder().reset(root);
+        int count = 0;
+        ASTNode last = null;
+        for (ASTNode n = cursor.next(); n != null; n = cursor.next()) {
+            count++;
+            last = n;
+        }
+        assertEquals(depth + 1, count);
+        assertSame(root, last);
+    }
+}
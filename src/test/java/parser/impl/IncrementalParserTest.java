@@ -0,0 +1,138 @@
+package parser.impl;
+
+import exception.GrammarError;
+import frontEnd.lexer.LexPool;
+import frontEnd.lexer.dataStruct.TextEdit;
+import frontEnd.lexer.impl.DfaLexer;
+import frontEnd.parser.dataStruct.ASTLeaf;
+import frontEnd.parser.dataStruct.ASTNode;
+import frontEnd.parser.impl.IncrementalParser;
+import frontEnd.parser.impl.RecursiveDescentParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class IncrementalParserTest {
+    private final static String SOURCE = "int g = 1;\n" +
+            "const int N = 2;\n" +
+            "int f(int x, int a[][N]) {\n" +
+            "    int y = x;\n" +
+            "    return y + g;\n" +
+            "}\n" +
+            "void v() { { int y; } y = 1; }\n" +
+            "int h(int x) {\n" +
+            "    return f(x, 1) + k;\n" +
+            "}\n" +
+            "int main() {\n" +
+            "    printf(\"%d\", h(N));\n" +
+            "    return 0;\n" +
+            "}\n";
+
+    @Test
+    public void testSameAsFullParse() {
+        IncrementalParser parser = new IncrementalParser(new DfaLexer(SOURCE).tokenize());
+        Assert.assertEquals(parse(SOURCE), result(parser));
+        String source = SOURCE;
+        // rename a local, define the global that h looks up, break and mend a body, add a function, add lines
+        String[][] edits = {{"int y = x;", "int z = x;"}, {"const int N", "int k;\nconst int N"},
+                {"    return y + g;\n}", "    return y + g;\n"}, {"    return y + g;\n", "    return y + g;\n}"},
+                {"int main()", "int k(int a) { return a; }\nint main()"}, {"void v()", "\n\n\nvoid v()"},
+                {"int x, int a[][N]", "int x"}, {"int k;\n", "int k;\nconst int g = 3;\n"}};
+        for (String[] edit : edits) {
+            int offset = source.indexOf(edit[0]);
+            parser.edit(new TextEdit(offset, edit[0].length(), edit[1]));
+            source = source.substring(0, offset) + edit[1] + source.substring(offset + edit[0].length());
+            Assert.assertEquals(source, parse(source), result(parser));
+        }
+    }
+
+    /**
+     * An edit inside a function that changes none of the names it defines keeps the items after it.
+     */
+    @Test
+    public void testKeepsItemsAfterEdit() {
+        IncrementalParser parser = new IncrementalParser(new DfaLexer(SOURCE).tokenize());
+        List<ASTNode> before = new ArrayList<>(parser.getAST().getChildren());
+        int offset = SOURCE.indexOf("y + g");
+        parser.edit(new TextEdit(offset, 1, "x"));
+        List<ASTNode> after = parser.getAST().getChildren();
+        Assert.assertEquals(before.size(), after.size());
+        Assert.assertSame(before.get(1), after.get(1));
+        Assert.assertNotSame(before.get(2), after.get(2));
+        for (int i = 3; i < before.size(); i++) {
+            Assert.assertSame(before.get(i), after.get(i));
+        }
+    }
+
+    @Test
+    public void testRandomEdits() throws IOException {
+        String[] snippets = {"int z = 1;", "}", "{", "return 0;", "\n", "x", "(", ";", "f(1)", "const int N = 3;\n",
+                "void v() { }\n", "a", "g", "int ", "[2]", ",", "/* c */"};
+        Random random = new Random(21);
+        for (String initial : List.of(SOURCE, Files.readString(Path.of("./testfile.txt")))) {
+            String source = initial;
+            IncrementalParser parser = new IncrementalParser(new DfaLexer(source).tokenize());
+            for (int i = 0; i < 200; i++) {
+                int offset = random.nextInt(source.length() + 1);
+                int removed = Math.min(source.length() - offset, random.nextInt(8));
+                String inserted = snippets[random.nextInt(snippets.length)];
+                String edited = source.substring(0, offset) + inserted + source.substring(offset + removed);
+                // keep the sources that still end with the MainFuncDef, the parser reads past the end of the others
+                if (!edited.endsWith("return 0;\n}\n")) {
+                    continue;
+                }
+                String expected;
+                try {
+                    expected = parse(edited);
+                } catch (RuntimeException e) {
+                    // and those it cannot recover from
+                    continue;
+                }
+                parser.edit(new TextEdit(offset, removed, inserted));
+                source = edited;
+                Assert.assertEquals(source, expected, result(parser));
+            }
+        }
+    }
+
+    private static String parse(String source) {
+        RecursiveDescentParser parser = new RecursiveDescentParser();
+        parser.setTokens(new DfaLexer(source).tokenize());
+        parser.parse();
+        return bracket(parser.getAST(), new StringBuilder()).append(codes(parser.getErrors())).toString();
+    }
+
+    private static String result(IncrementalParser parser) {
+        LexPool tokens = parser.getTokens();
+        Assert.assertEquals(tokens.getSource().toString(), tokens.size(), new DfaLexer(tokens.getSource()).tokenize().size());
+        return bracket(parser.getAST(), new StringBuilder()).append(codes(parser.getErrors())).toString();
+    }
+
+    private static List<String> codes(List<GrammarError> errors) {
+        List<String> codes = new ArrayList<>();
+        errors.forEach(e -> codes.add(e.getToken().getLineNum() + " " + e.getCode().getValue()));
+        return codes;
+    }
+
+    /**
+     * The tree with the line and column of every leaf, which the leaves kept after an edit are moved to.
+     */
+    private static StringBuilder bracket(ASTNode node, StringBuilder sb) {
+        if (node instanceof ASTLeaf) {
+            var token = ((ASTLeaf) node).getToken();
+            return sb.append(token.getRawValue()).append('@').append(token.getLineNum()).append(':').append(token.getColNum());
+        }
+        sb.append(node.getGrammarType()).append('(');
+        for (int i = 0; i < node.getChildren().size(); i++) {
+            if (i > 0) sb.append(' ');
+            bracket(node.getChildren().get(i), sb);
+        }
+        return sb.append(')');
+    }
+}
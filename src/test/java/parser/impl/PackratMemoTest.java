@@ -0,0 +1,67 @@
+package parser.impl;
+
+import frontEnd.lexer.LexPool;
+import frontEnd.lexer.impl.DfaLexer;
+import frontEnd.parser.dataStruct.ASTLeaf;
+import frontEnd.parser.dataStruct.ASTNode;
+import frontEnd.parser.impl.PackratMemo;
+import frontEnd.parser.impl.RecursiveDescentParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+public class PackratMemoTest {
+    private final RecursiveDescentParser parser = new RecursiveDescentParser();
+
+    @Test
+    public void testSameAsWithoutMemo() throws IOException {
+        // ForStmt fails after its LVal, which the Cond then begins with
+        String backtracking = "int main() {\n"
+                + "    int i = 0, a[3];\n"
+                + "    for (a[i + 1] < 3; i < 4; ) { i = i + 1; }\n"
+                + "    for (i; ; ) ;\n"
+                + "    return a[i];\n"
+                + "}\n";
+        PackratMemo memo = compare(backtracking);
+        Assert.assertTrue(memo.getHits() > 0);
+        Assert.assertTrue(memo.getLookups() >= memo.getHits());
+        Assert.assertTrue(memo.getHitRate() > 0);
+
+        memo = compare(Files.readString(Paths.get("./testfile.txt")));
+        Assert.assertTrue(memo.getLookups() > 0);
+        // the memo is dropped after every top-level item
+        Assert.assertEquals(0, memo.getEntries());
+        Assert.assertTrue(memo.getPeakMemory() > 0);
+    }
+
+    private PackratMemo compare(String source) {
+        LexPool tokens = new DfaLexer(source).tokenize();
+        parser.setMemoize(false);
+        parser.setTokens(tokens);
+        parser.parse();
+        String expected = dump(parser.getAST(), new StringBuilder()).append(parser.getErrors()).toString();
+
+        parser.setMemoize(true);
+        parser.setTokens(tokens);
+        parser.parse();
+        String actual = dump(parser.getAST(), new StringBuilder()).append(parser.getErrors()).toString();
+        PackratMemo memo = parser.getMemo().orElseThrow();
+        parser.setMemoize(false);
+        Assert.assertEquals(expected, actual);
+        return memo;
+    }
+
+    private static StringBuilder dump(ASTNode node, StringBuilder sb) {
+        sb.append(node.getGrammarType()).append(' ');
+        if (node instanceof ASTLeaf) {
+            sb.append(((ASTLeaf) node).getToken().getRawValue()).append(' ');
+        }
+        for (ASTNode child : node.getChildren()) {
+            dump(child, sb);
+        }
+        return sb;
+    }
+}
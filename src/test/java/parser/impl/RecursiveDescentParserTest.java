@@ -1,17 +1,23 @@
 package parser.impl;
 
 import exception.GrammarError;
+import frontEnd.lexer.LexPool;
+import frontEnd.lexer.TokenSource;
+import frontEnd.lexer.dataStruct.LexType;
+import frontEnd.lexer.dataStruct.Token;
+import frontEnd.lexer.impl.DfaLexer;
 import frontEnd.lexer.impl.LexerImpl;
 import frontEnd.parser.dataStruct.ASTLeaf;
 import frontEnd.parser.dataStruct.ASTNode;
+import frontEnd.parser.dataStruct.GrammarType;
 import frontEnd.parser.impl.RecursiveDescentParser;
 import junit.framework.TestCase;
 
-import java.util.TreeSet;
+import java.util.List;
 
 public class RecursiveDescentParserTest extends TestCase {
 
-    private final RecursiveDescentParser parser = RecursiveDescentParser.getInstance();
+    private final RecursiveDescentParser parser = new RecursiveDescentParser();
 
     public void testAST() {
         parser.setTokens(LexerImpl.getInstance().getAllTokens());
@@ -42,10 +48,10 @@ public class RecursiveDescentParserTest extends TestCase {
     }
 
     public void testErrorHandler() {
+        parser.setTokens(LexerImpl.getInstance().getAllTokens());
         parser.parse();
-        var ast = parser.getAST();
         System.out.println("=========error handler result:=========");
-        TreeSet<GrammarError> errors = ast.getErrors();
+        List<GrammarError> errors = parser.getErrors();
         for (var error : errors) {
             System.out.println(error);
         }
@@ -57,4 +63,189 @@ public class RecursiveDescentParserTest extends TestCase {
         System.out.println("=========error handler end============");
     }
 
-}
\ No newline at end of file
+    /**
+     * A leaf is only made for a token that is consumed, so no token is asked for twice when nothing is parsed again.
+     */
+    public void testEveryTokenConsumedOnce() {
+        String source = "int a[4][4];\n"
+                + "int f(int x) { return x; }\n"
+                + "int main() {\n"
+                + "    a[f(f(1) + a[0][f(2)])][f(3 * (4 + 5))] = a[1][2] + f(a[3][3]);\n"
+                + "    a[1][f(2)] = getint();\n"
+                + "    a[0][0] * 2;\n"
+                + "    for (a[0][1] = 0; a[0][1] < 3; a[0][1] = a[0][1] + 1) { f(a[0][1]); }\n"
+                + "    return 0;\n"
+                + "}\n";
+        CountingTokens tokens = new CountingTokens(new DfaLexer(source).tokenize());
+        parser.setTokens(tokens);
+        parser.parse();
+        for (int i = 0; i < tokens.size(); i++) {
+            assertEquals("token " + i + " " + tokens.getRawValue(i), 1, tokens.reads[i]);
+        }
+    }
+
+    /**
+     * Binary expressions keep the shape of the left-recursive rules, which the output is printed from.
+     */
+    public void testExpShape() {
+        parser.setTokens(new DfaLexer("int main() { return 1 * 2 / 3 + -4; }").tokenize());
+        parser.parse();
+        String tree = bracket(parser.getAST(), new StringBuilder()).toString();
+        assertTrue(tree, tree.contains("EXP(ADD_EXP(ADD_EXP(MUL_EXP(MUL_EXP(UNARY_EXP(PRIMARY_EXP(NUMBER(1)))) * "
+                + "MUL_EXP(UNARY_EXP(PRIMARY_EXP(NUMBER(2)))) / UNARY_EXP(PRIMARY_EXP(NUMBER(3))))) + "
+                + "MUL_EXP(UNARY_EXP(UNARY_OP(-) UNARY_EXP(PRIMARY_EXP(NUMBER(4)))))))"));
+
+        parser.setTokens(new DfaLexer("int main() { if (1 || 2 && 3 < 4) ; return 0; }").tokenize());
+        parser.parse();
+        tree = bracket(parser.getAST(), new StringBuilder()).toString();
+        assertTrue(tree, tree.contains("COND(LOR_EXP(LOR_EXP(LAND_EXP(EQ_EXP(REL_EXP(ADD_EXP(MUL_EXP(UNARY_EXP("
+                + "PRIMARY_EXP(NUMBER(1))))))))) || LAND_EXP(LAND_EXP(EQ_EXP(REL_EXP(ADD_EXP(MUL_EXP(UNARY_EXP("
+                + "PRIMARY_EXP(NUMBER(2)))))))) && EQ_EXP(REL_EXP(REL_EXP(ADD_EXP(MUL_EXP(UNARY_EXP(PRIMARY_EXP("
+                + "NUMBER(3)))))) < ADD_EXP(MUL_EXP(UNARY_EXP(PRIMARY_EXP(NUMBER(4))))))))))"));
+    }
+
+    /**
+     * Long operator chains and runs of unary operators are parsed in loops, not by recursion.
+     */
+    public void testLongExp() {
+        String sum = "1" + " + 2 * 3".repeat(200000);
+        // the tree of a unary chain is as deep as the chain
+        String negations = "-".repeat(2000) + "1";
+        String source = "int main() { int a = " + sum + "; a = " + negations + "; return 0; }";
+        LexPool tokens = new DfaLexer(source).tokenize();
+        parser.setTokens(tokens);
+        parser.parse();
+        assertEquals(GrammarType.MAIN_FUNC_DEF, parser.getAST().getChildren().get(0).getGrammarType());
+        assertTrue(parser.getErrors().isEmpty());
+    }
+
+    public void testErrorLimit() {
+        String source = "int f() { return\n x; }\n"
+                + "int g() { int a; int a; return 0; }\n"
+                + "int main() { printf(\"%d\"); return 0 }\n";
+        LexPool tokens = new DfaLexer(source).tokenize();
+        parser.setTokens(tokens);
+        parser.parse();
+        assertEquals(List.of("2 c", "3 b", "4 l", "4 i"), codes(parser.getErrors()));
+
+        parser.setErrorLimit(1);
+        parser.setTokens(tokens);
+        parser.parse();
+        parser.setErrorLimit(Integer.MAX_VALUE);
+        assertEquals(List.of("2 c"), codes(parser.getErrors()));
+        // g is not parsed
+        assertEquals(1, parser.getAST().getChildren().size());
+
+        // a VarDecl without its ';' is not a Decl, the missing ']' found in it goes with it
+        parser.setTokens(new DfaLexer("int a[2\nint main() { return 0; }").tokenize());
+        parser.parse();
+        assertTrue(parser.getErrors().isEmpty());
+    }
+
+    /**
+     * In parallel mode the FuncDefs give the same tree and errors as one after another, also where a function sees the
+     * locals of the body before it, or is defined again.
+     */
+    public void testParallelFuncDefs() throws java.io.IOException {
+        StringBuilder sb = new StringBuilder("int g = 1;\nconst int N = 2;\n");
+        for (int i = 0; i < 40; i++) {
+            sb.append("int f").append(i % 30).append("(int x, int a[][N]) {\n")
+                    .append("    int g = x;\n")
+                    .append(i % 3 == 0 ? "" : "    if (x > N) return f" + (i / 2) + "(g, a);\n")
+                    .append("    return g + y;\n")
+                    .append("}\n")
+                    .append("void v").append(i).append("() { { int y; } y = 1; }\n");
+        }
+        sb.append("int main() { return f3(1, 2); }\n");
+        List<String> sources = List.of(java.nio.file.Files.readString(java.nio.file.Path.of("./testfile.txt")),
+                sb.toString(),
+                "int f() { return\n x; }\nint g() { int a; int a; return 0; }\n"
+                        + "int main() { printf(\"%d\"); return 0 }\n",
+                "int f() { return 0; }\nint g() { return 0;\nint main() { return 0; }\n",
+                "void f(int f) { }\nvoid f() { }\nint g(int x) { int x; }\nint main() { return g; }\n");
+        for (String source : sources) {
+            LexPool tokens = new DfaLexer(source).tokenize();
+            for (int limit : new int[]{Integer.MAX_VALUE, 1, 3}) {
+                for (boolean memoize : new boolean[]{false, true}) {
+                    RecursiveDescentParser sequential = new RecursiveDescentParser();
+                    RecursiveDescentParser parallel = new RecursiveDescentParser();
+                    for (RecursiveDescentParser p : List.of(sequential, parallel)) {
+                        p.setErrorLimit(limit);
+                        p.setMemoize(memoize);
+                        p.setTokens(tokens);
+                    }
+                    parallel.setParallel(true);
+                    sequential.parse();
+                    parallel.parse();
+                    assertEquals(bracket(sequential.getAST(), new StringBuilder()).toString(),
+                            bracket(parallel.getAST(), new StringBuilder()).toString());
+                    assertEquals(codes(sequential.getErrors()), codes(parallel.getErrors()));
+                }
+            }
+        }
+    }
+
+    private static List<String> codes(List<GrammarError> errors) {
+        List<String> codes = new java.util.ArrayList<>();
+        errors.forEach(e -> codes.add(e.getToken().getLineNum() + " " + e.getCode().getValue()));
+        return codes;
+    }
+
+    private static StringBuilder bracket(ASTNode node, StringBuilder sb) {
+        if (node instanceof ASTLeaf) {
+            return sb.append(((ASTLeaf) node).getToken().getRawValue());
+        }
+        sb.append(node.getGrammarType()).append('(');
+        for (int i = 0; i < node.getChildren().size(); i++) {
+            if (i > 0) sb.append(' ');
+            bracket(node.getChildren().get(i), sb);
+        }
+        return sb.append(')');
+    }
+
+    private static class CountingTokens implements TokenSource {
+        private final LexPool pool;
+        private final int[] reads;
+
+        CountingTokens(LexPool pool) {
+            this.pool = pool;
+            this.reads = new int[pool.size()];
+        }
+
+        @Override
+        public int size() {
+            return pool.size();
+        }
+
+        @Override
+        public LexType getLexType(int index) {
+            return pool.getLexType(index);
+        }
+
+        @Override
+        public String getRawValue(int index) {
+            return pool.getRawValue(index);
+        }
+
+        @Override
+        public int getLineNum(int index) {
+            return pool.getLineNum(index);
+        }
+
+        @Override
+        public int getColNum(int index) {
+            return pool.getColNum(index);
+        }
+
+        @Override
+        public int getIdentId(int index) {
+            return pool.getIdentId(index);
+        }
+
+        @Override
+        public Token getToken(int index) {
+            reads[index]++;
+            return pool.getToken(index);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package session;
+
+import bench.Sources;
+import frontEnd.lexer.impl.LexerImpl;
+import frontEnd.output.AnswerWriter;
+import frontEnd.parser.impl.RecursiveDescentParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class CompilationSessionTest {
+    private final static String ERRORS = "int g;\n" +
+            "int g;\n" +
+            "void v() { return 1; }\n" +
+            "int two(int a, int b) { return a + b; }\n" +
+            "int main() {\n" +
+            "    int a = 1;\n" +
+            "    int a = 2;\n" +
+            "    two(1);\n" +
+            "    printf(\"%d\\n\");\n" +
+            "    b = 3;\n" +
+            "    return 0;\n" +
+            "}\n";
+    private final static String IR = "int f() {\n" +
+            "    return 3;\n" +
+            "}\n" +
+            "int main() {\n" +
+            "    return 1 + 2 * 3;\n" +
+            "}\n";
+
+    @Test
+    public void testSameAsSharedParser() throws IOException {
+        RecursiveDescentParser parser = RecursiveDescentParser.getInstance();
+        parser.setTokens(LexerImpl.getInstance().getAllTokens());
+        parser.parse();
+        CompilationSession session = CompilationSession.of(Path.of("./testfile.txt"));
+        Assert.assertEquals(parser.getAST().peekTree(), session.parse().peekTree());
+        Assert.assertEquals(parser.getErrors().size(), session.getErrors().size());
+        Assert.assertNotSame(parser, session.getParser());
+    }
+
+    /**
+     * Sessions of different sources on a thread pool give what they give one after another.
+     */
+    @Test
+    public void testConcurrentSessions() throws Exception {
+        List<String> sources = new ArrayList<>();
+        sources.add(Files.readString(Path.of("./testfile.txt")));
+        sources.add(ERRORS);
+        sources.add(IR);
+        sources.add(Sources.functions(300));
+        List<String> expected = new ArrayList<>();
+        for (String source : sources) {
+            expected.add(compile(source));
+        }
+        Assert.assertTrue(expected.get(1).endsWith("2 b\n3 f\n7 b\n8 d\n9 l\n"));
+
+        int tasks = 256;
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < tasks; i++) {
+                String source = sources.get(i % sources.size());
+                results.add(pool.submit(() -> compile(source)));
+            }
+            for (int i = 0; i < tasks; i++) {
+                Assert.assertEquals(expected.get(i % sources.size()), results.get(i).get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Parallel mode gives the same answers, with the FuncDefs checked as they are taken.
+     */
+    @Test
+    public void testParallel() throws IOException {
+        for (String source : List.of(Files.readString(Path.of("./testfile.txt")), ERRORS, IR, Sources.functions(300))) {
+            Assert.assertEquals(compile(source), compile(source, true));
+        }
+        CompilationSession session = CompilationSession.of(Sources.functions(300));
+        session.getParser().setParallel(true);
+        session.parse();
+        Assert.assertEquals(300, session.getParser().getParallelFuncDefs());
+        Assert.assertTrue(session.getErrors().isEmpty());
+    }
+
+    private static String compile(String source) throws IOException {
+        return compile(source, false);
+    }
+
+    /**
+     * The answers, then the IR of the one source that the IR visitor can build yet.
+     */
+    private static String compile(String source, boolean parallel) throws IOException {
+        CompilationSession session = CompilationSession.of(source);
+        session.getParser().setParallel(parallel);
+        Path file = Files.createTempFile("answer", ".txt");
+        try {
+            try (AnswerWriter writer = new AnswerWriter(file)) {
+                session.writeAnswers(writer);
+            }
+            String answers = Files.readString(file);
+            return source.equals(IR) ? answers + session.generateIr() : answers;
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
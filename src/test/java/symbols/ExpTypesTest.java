@@ -0,0 +1,75 @@
+package symbols;
+
+import exception.ErrorCode;
+import exception.GrammarError;
+import frontEnd.lexer.impl.DfaLexer;
+import frontEnd.parser.dataStruct.ASTNode;
+import frontEnd.parser.dataStruct.GrammarType;
+import frontEnd.parser.dataStruct.TreeCursor;
+import frontEnd.parser.impl.RecursiveDescentParser;
+import frontEnd.symbols.ExpTypes;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ExpTypesTest {
+    private final static String SOURCE = "const int N = 2;\n" +
+            "int a[2][3];\n" +
+            "int f(int x) { return x; }\n" +
+            "void v() { }\n" +
+            "int g(int x[]) { return 0; }\n" +
+            "int main() {\n" +
+            "    int x = 1;\n" +
+            "    f(-x);\n" +
+            "    f((N * 2));\n" +
+            "    f(a[1][2] + 1);\n" +
+            "    g(a[1]);\n" +
+            "    g(x);\n" +
+            "    f(a);\n" +
+            "    f(v());\n" +
+            "    f(y);\n" +
+            "    return 0;\n" +
+            "}\n";
+
+    @Test
+    public void testTypes() {
+        RecursiveDescentParser parser = parse();
+        ExpTypes types = parser.getExpTypes();
+        types.annotate(parser.getAST());
+        // the argument of each call, all in main
+        List<Integer> args = new ArrayList<>();
+        TreeCursor cursor = parser.getAST().preOrder();
+        for (ASTNode node = cursor.next(); node != null; node = cursor.next()) {
+            if (node.getGrammarType() == GrammarType.FUNC_RPARAMS) {
+                args.add(types.typeOf(node.getChild(0)));
+            }
+        }
+        Assert.assertEquals(List.of(ExpTypes.of(ExpTypes.INT, 0, false), ExpTypes.of(ExpTypes.INT, 0, true),
+                ExpTypes.of(ExpTypes.INT, 0, false), ExpTypes.of(ExpTypes.INT, 1, false),
+                ExpTypes.of(ExpTypes.INT, 0, false), ExpTypes.of(ExpTypes.INT, 2, false),
+                ExpTypes.of(ExpTypes.VOID, 0, false), ExpTypes.of(ExpTypes.UNDEFINED, 0, false)), args);
+        Assert.assertEquals(-1, ExpTypes.getDim(args.get(6)));
+        Assert.assertEquals(-1, ExpTypes.getDim(args.get(7)));
+    }
+
+    @Test
+    public void testParamTypeErrors() {
+        List<Integer> lines = new ArrayList<>();
+        for (GrammarError error : parse().getErrors()) {
+            if (error.getCode() == ErrorCode.PARAM_TYPE_UNMATCHED) {
+                lines.add(error.getToken().getLineNum());
+            }
+        }
+        // an undefined name has no dim either, the same as before
+        Assert.assertEquals(List.of(12, 13, 14, 15), lines);
+    }
+
+    private static RecursiveDescentParser parse() {
+        RecursiveDescentParser parser = new RecursiveDescentParser();
+        parser.setTokens(new DfaLexer(SOURCE).tokenize());
+        parser.parse();
+        return parser;
+    }
+}
@@ -0,0 +1,91 @@
+package symbols;
+
+import exception.DupIdentError;
+import frontEnd.lexer.LexPool;
+import frontEnd.lexer.dataStruct.Token;
+import frontEnd.lexer.impl.DfaLexer;
+import frontEnd.symbols.FlatSymbolTable;
+import frontEnd.symbols.FuncSymbol;
+import frontEnd.symbols.FuncType;
+import frontEnd.symbols.Symbol;
+import frontEnd.symbols.SymbolTable;
+import frontEnd.symbols.VarSymbol;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.Random;
+
+public class FlatSymbolTableTest {
+
+    @Test
+    public void testShadow() {
+        LexPool tokens = new DfaLexer("a b a a b").tokenize();
+        FlatSymbolTable table = new FlatSymbolTable();
+        int a = tokens.getIdentId(0), b = tokens.getIdentId(1);
+        Symbol outerA = new VarSymbol(null, tokens.getToken(0), 0);
+        Assert.assertTrue(table.addSymbol(outerA).isEmpty());
+        Assert.assertTrue(table.addSymbol(new FuncSymbol(null, tokens.getToken(1), FuncType.INT)).isEmpty());
+        table.enterScope();
+        table.enterScope();
+        Token innerToken = tokens.getToken(2);
+        Symbol innerA = new VarSymbol(null, innerToken, 1);
+        Assert.assertTrue(table.addSymbol(innerA).isEmpty());
+        Assert.assertSame(innerA, table.lookup(a).orElseThrow());
+        Assert.assertTrue(table.lookup4func(b).isPresent());
+        Assert.assertFalse(table.contains(b));
+
+        Token dupToken = tokens.getToken(3);
+        Optional<DupIdentError> dup = table.addSymbol(new VarSymbol(null, dupToken, 0));
+        Assert.assertTrue(dup.isPresent());
+        Assert.assertSame(dupToken, dup.get().getToken());
+        Assert.assertSame(innerToken, dup.get().getPreToken());
+        Assert.assertSame(innerA, table.lookup(a).orElseThrow());
+
+        table.addSymbol(new VarSymbol(null, tokens.getToken(4), 0));
+        Assert.assertTrue(table.lookup4func(b).isEmpty());
+        table.exitScope();
+        Assert.assertEquals(1, table.getLevel());
+        Assert.assertSame(outerA, table.lookup(a).orElseThrow());
+        Assert.assertTrue(table.lookup4func(b).isPresent());
+        table.exitScope();
+        Assert.assertTrue(table.addSymbol(new VarSymbol(null, tokens.getToken(2), 0)).isPresent());
+    }
+
+    /**
+     * The same symbols and errors as a {@link SymbolTable} for each scope, over random scopes of many names.
+     */
+    @Test
+    public void testSameAsSymbolTable() {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            source.append('v').append(i).append(' ');
+        }
+        LexPool tokens = new DfaLexer(source.toString()).tokenize();
+        Random random = new Random(22);
+        FlatSymbolTable flat = new FlatSymbolTable(4);
+        SymbolTable nested = new SymbolTable(null);
+        for (int step = 0; step < 100000; step++) {
+            int op = random.nextInt(10);
+            if (op == 0 && flat.getLevel() < 40) {
+                flat.enterScope();
+                nested = new SymbolTable(nested);
+            } else if (op == 1 && flat.getLevel() > 0) {
+                flat.exitScope();
+                nested = nested.getOuter();
+            } else {
+                Token token = tokens.getToken(random.nextInt(tokens.size()));
+                if (op < 6) {
+                    Symbol symbol = new VarSymbol(null, token, 0);
+                    Optional<DupIdentError> expected = nested.addSymbol(symbol);
+                    Optional<DupIdentError> actual = flat.addSymbol(symbol);
+                    Assert.assertEquals(expected.isPresent(), actual.isPresent());
+                    expected.ifPresent(e -> Assert.assertSame(e.getPreToken(), actual.get().getPreToken()));
+                }
+                Assert.assertSame(nested.lookup(token.getIdentId()).orElse(null),
+                        flat.lookup(token.getIdentId()).orElse(null));
+                Assert.assertEquals(nested.contains(token.getIdentId()), flat.contains(token.getIdentId()));
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package symbols;
+
+import frontEnd.lexer.impl.DfaLexer;
+import frontEnd.parser.dataStruct.ASTLeaf;
+import frontEnd.parser.dataStruct.ASTNode;
+import frontEnd.parser.dataStruct.GrammarType;
+import frontEnd.parser.impl.RecursiveDescentParser;
+import frontEnd.symbols.FuncSymbol;
+import frontEnd.symbols.NameBindings;
+import frontEnd.symbols.Symbol;
+import frontEnd.symbols.VarSymbol;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class NameBindingsTest {
+    private final static String SOURCE = "int x = 1;\n" +
+            "int f(int p[]) { return p[0]; }\n" +
+            "int main() {\n" +
+            "    int a[2];\n" +
+            "    a[1] = f(a) + x + y;\n" +
+            "    { int x = 2; a[0] = x; }\n" +
+            "    return 0;\n" +
+            "}\n";
+
+    @Test
+    public void testBindings() {
+        RecursiveDescentParser parser = new RecursiveDescentParser();
+        parser.setTokens(new DfaLexer(SOURCE).tokenize());
+        parser.parse();
+        NameBindings bindings = parser.getBindings();
+        List<ASTLeaf> idents = idents(parser.getAST());
+        // x f p p a a f a x y x a x
+        Assert.assertEquals(13, idents.size());
+        idents.forEach(ident -> Assert.assertTrue(bindings.isBound(ident)));
+        Symbol global = symbol(bindings, idents.get(0));
+        Symbol param = symbol(bindings, idents.get(2));
+        Assert.assertEquals(1, ((VarSymbol) param).getDim());
+        Assert.assertSame(param, symbol(bindings, idents.get(3)));
+        Assert.assertSame(symbol(bindings, idents.get(4)), symbol(bindings, idents.get(5)));
+        Assert.assertTrue(symbol(bindings, idents.get(6)) instanceof FuncSymbol);
+        Assert.assertSame(global, symbol(bindings, idents.get(8)));
+        Assert.assertTrue(bindings.lookup(idents.get(9)).isEmpty());
+        Symbol local = symbol(bindings, idents.get(10));
+        Assert.assertNotSame(global, local);
+        Assert.assertSame(local, symbol(bindings, idents.get(12)));
+    }
+
+    @Test
+    public void testParallel() {
+        StringBuilder source = new StringBuilder("int g;\n");
+        for (int i = 0; i < 20; i++) {
+            source.append("int f").append(i).append("(int p) { int q = p + g; return f").append(i / 2).append("(q); }\n");
+        }
+        source.append("int main() { return f19(1); }\n");
+        RecursiveDescentParser parser = new RecursiveDescentParser();
+        parser.setParallel(true);
+        parser.setTokens(new DfaLexer(source.toString()).tokenize());
+        parser.parse();
+        NameBindings bindings = parser.getBindings();
+        List<ASTLeaf> idents = idents(parser.getAST());
+        Symbol g = symbol(bindings, idents.get(0));
+        for (int i = 0; i < 20; i++) {
+            // f p q p g f q
+            List<ASTLeaf> func = idents.subList(1 + i * 7, 8 + i * 7);
+            Assert.assertSame(symbol(bindings, func.get(1)), symbol(bindings, func.get(3)));
+            Assert.assertSame(g, symbol(bindings, func.get(4)));
+            Assert.assertSame(symbol(bindings, idents.get(1 + i / 2 * 7)), symbol(bindings, func.get(5)));
+            Assert.assertSame(symbol(bindings, func.get(2)), symbol(bindings, func.get(6)));
+        }
+    }
+
+    private static Symbol symbol(NameBindings bindings, ASTLeaf ident) {
+        return bindings.lookup(ident).orElseThrow();
+    }
+
+    private static List<ASTLeaf> idents(ASTNode root) {
+        List<ASTLeaf> idents = new ArrayList<>();
+        for (ASTLeaf leaf : root.leaves()) {
+            if (leaf.getGrammarType() == GrammarType.IDENT) {
+                idents.add(leaf);
+            }
+        }
+        return idents;
+    }
+}